@@ -0,0 +1,160 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A headless game where every player follows the same cycle around the board, spaced evenly so the
+ * snakes do not run into each other. Player count and trail length are clamped to what fits on the board.
+ * <p>
+ * The cycle leaves out the center row except for its connecting tiles, and only tiles off the cycle are walkable,
+ * so food only spawns on the center row. The snakes never eat, never grow and the game never ends,
+ * so a tick never includes the cost of starting a new game.
+ */
+class SnakeBenchmarkGame implements SnakePositionSource, SnakeWalkabilitySource, SnakeOverheadTextSink
+{
+	private static final int START_LOCATION = SnakePoint.pack(3200, 3200, 0);
+
+	private final int gameSize;
+	private final int playerCount;
+	private final int trailLength;
+	private final int minX;
+	private final int maxY;
+	private final boolean[] isOnCycle;
+	private final int[] cycle;
+	private final int spacing;
+
+	private final SnakeGame game;
+	private int step;
+
+	SnakeBenchmarkGame(int gameSize, int playerCount, int trailLength)
+	{
+		this.gameSize = gameSize;
+		int offset = (int) Math.ceil(gameSize / 2.0f);
+		this.minX = SnakePoint.getX(START_LOCATION) - offset + 1;
+		this.maxY = SnakePoint.getY(START_LOCATION) + offset - 1;
+		this.isOnCycle = new boolean[gameSize * gameSize];
+		this.cycle = buildCycle();
+		this.playerCount = Math.max(1, Math.min(playerCount, cycle.length / 4));
+		this.spacing = cycle.length / this.playerCount;
+		this.trailLength = Math.max(2, Math.min(trailLength, spacing - 2));
+		this.game = new SnakeGame(this, this, this);
+		start();
+	}
+
+	SnakeGame getGame()
+	{
+		return game;
+	}
+
+	private void start()
+	{
+		List<String> playerNames = new ArrayList<>();
+		for (int i = 0; i < playerCount; i++)
+		{
+			playerNames.add("player" + i);
+		}
+		game.initialize(playerNames, playerNames.get(0), START_LOCATION, gameSize, false, true, true, 1, 0);
+		for (String playerName : playerNames)
+		{
+			game.handleChatMessage(playerName, SnakeGame.READY_MESSAGE);
+		}
+
+		while (game.getCurrentState() != SnakeGame.State.PLAYING)
+		{
+			tick();
+		}
+
+		for (int i = 2; i < trailLength; i++)
+		{
+			for (SnakePlayer snakePlayer : game.getSnakePlayers())
+			{
+				snakePlayer.setShouldGrow(true);
+			}
+			tick();
+		}
+	}
+
+	/**
+	 * Moves every player one step along the cycle and ticks the game.
+	 */
+	void tick()
+	{
+		step++;
+		game.tick();
+	}
+
+	@Override
+	public int getLocation(int playerId)
+	{
+		return cycle[(step + playerId * spacing) % cycle.length];
+	}
+
+	@Override
+	public boolean isWalkable(int point)
+	{
+		int x = SnakePoint.getX(point) - minX;
+		int y = maxY - SnakePoint.getY(point);
+		return !isOnCycle[x * gameSize + y];
+	}
+
+	@Override
+	public void setOverheadText(int playerId, String text, Color color)
+	{
+	}
+
+	@Override
+	public void playDeathAnimation(int playerId)
+	{
+	}
+
+	/**
+	 * Serpentine through columns 1 and up on an even number of rows, skipping the center row, then back up column 0.
+	 * Where two rows of the serpentine are not next to each other, a single tile of the center row connects them.
+	 */
+	private int[] buildCycle()
+	{
+		int center = (int) Math.ceil(gameSize / 2.0f) - 1;
+		int rowCount = gameSize - 1 - (gameSize - 1) % 2;
+		int[] rows = new int[rowCount];
+		for (int i = 0; i < rowCount; i++)
+		{
+			rows[i] = i < center ? i : i + 1;
+		}
+
+		int[] cycle = new int[rowCount * gameSize + 2];
+		int index = 0;
+		int x = 0;
+		for (int i = 0; i < rowCount; i++)
+		{
+			if (i > 0 && rows[i] - rows[i - 1] == 2)
+			{
+				cycle[index++] = addToCycle(x, rows[i] - 1);
+			}
+
+			boolean isRightward = i % 2 == 0;
+			for (int j = i == 0 ? 0 : 1; j < gameSize; j++)
+			{
+				x = isRightward ? j : gameSize - j;
+				cycle[index++] = addToCycle(x, rows[i]);
+			}
+		}
+		for (int i = rowCount - 1; i >= 1; i--)
+		{
+			cycle[index++] = addToCycle(0, rows[i]);
+			if (rows[i] - rows[i - 1] == 2)
+			{
+				cycle[index++] = addToCycle(0, rows[i] - 1);
+			}
+		}
+		return Arrays.copyOf(cycle, index);
+	}
+
+	private int addToCycle(int x, int y)
+	{
+		isOnCycle[x * gameSize + y] = true;
+		return SnakePoint.pack(minX + x, maxY - y, 0);
+	}
+}
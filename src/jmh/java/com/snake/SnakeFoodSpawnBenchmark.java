@@ -0,0 +1,61 @@
+package com.snake;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The draw behind SnakeGame.getRandomPointInGrid, on a board where the given fraction of cells holds a trail segment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeFoodSpawnBenchmark
+{
+	@Param({"3", "15", "31", "61"})
+	private int gameSize;
+
+	@Param({"0.0", "0.5", "0.9", "0.99"})
+	private double fillRatio;
+
+	private SnakeBoard board;
+	private SnakeRandom generator;
+
+	@Setup
+	public void setup()
+	{
+		boolean[][] walkableTiles = new boolean[gameSize][gameSize];
+		for (boolean[] column : walkableTiles)
+		{
+			Arrays.fill(column, true);
+		}
+		board = new SnakeBoard(SnakePoint.pack(3200, 3200, 0), walkableTiles, new SnakeEventLog());
+		generator = new SnakeRandom(1);
+
+		int cellCount = gameSize * gameSize;
+		int filledCount = Math.min((int) (cellCount * fillRatio), cellCount - 1);
+		for (int i = 0; i < filledCount; i++)
+		{
+			board.addSegment(board.toPoint(board.getRandomFreeCell(generator)), 0);
+		}
+	}
+
+	@Benchmark
+	public int getRandomPointInGrid()
+	{
+		return board.toPoint(board.getRandomFreeCell(generator));
+	}
+}
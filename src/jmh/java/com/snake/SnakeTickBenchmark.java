@@ -0,0 +1,47 @@
+package com.snake;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeTickBenchmark
+{
+	@Param({"3", "15", "31", "61"})
+	private int gameSize;
+
+	@Param({"1", "5", "16", "64"})
+	private int playerCount;
+
+	@Param({"2", "32", "256"})
+	private int trailLength;
+
+	private SnakeBenchmarkGame benchmarkGame;
+
+	@Setup
+	public void setup()
+	{
+		benchmarkGame = new SnakeBenchmarkGame(gameSize, playerCount, trailLength);
+	}
+
+	@Benchmark
+	public SnakeGame.State tick()
+	{
+		benchmarkGame.tick();
+		return benchmarkGame.getGame().getCurrentState();
+	}
+}
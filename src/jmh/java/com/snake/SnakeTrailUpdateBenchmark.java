@@ -0,0 +1,90 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A game tick followed by the incremental trail update of SnakeView.updateSnakeTrails, with the RuneLiteObject
+ * sink replaced by a blackhole. The tick alone is measured by {@link SnakeTickBenchmark} with the same parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeTrailUpdateBenchmark
+{
+	@Param({"15", "61"})
+	private int gameSize;
+
+	@Param({"1", "5", "16"})
+	private int playerCount;
+
+	@Param({"2", "32", "256"})
+	private int trailLength;
+
+	private SnakeBenchmarkGame benchmarkGame;
+	private final List<SnakeTrailObjects<Object>> playerTrailObjects = new ArrayList<>();
+	private SnakeTrailObjectSink<Object> sink;
+
+	@Setup
+	public void setup(Blackhole blackhole)
+	{
+		benchmarkGame = new SnakeBenchmarkGame(gameSize, playerCount, trailLength);
+		sink = new SnakeTrailObjectSink<Object>()
+		{
+			@Override
+			public Object spawnTrailObject(Color color)
+			{
+				return new Object();
+			}
+
+			@Override
+			public void setTrailObjectLocation(Object obj, int point)
+			{
+				blackhole.consume(obj);
+				blackhole.consume(point);
+			}
+
+			@Override
+			public void hideTrailObject(Object obj)
+			{
+				blackhole.consume(obj);
+			}
+		};
+
+		for (SnakePlayer snakePlayer : benchmarkGame.getGame().getSnakePlayers())
+		{
+			SnakeTrailObjects<Object> trailObjects = new SnakeTrailObjects<>();
+			trailObjects.update(snakePlayer.getSnakeTrail(), snakePlayer.getColor(), sink);
+			playerTrailObjects.add(trailObjects);
+		}
+	}
+
+	@Benchmark
+	public void updateSnakeTrails()
+	{
+		benchmarkGame.tick();
+		List<SnakePlayer> snakePlayers = benchmarkGame.getGame().getSnakePlayers();
+		for (int i = 0; i < snakePlayers.size(); i++)
+		{
+			SnakePlayer snakePlayer = snakePlayers.get(i);
+			playerTrailObjects.get(i).update(snakePlayer.getSnakeTrail(), snakePlayer.getColor(), sink);
+		}
+	}
+}
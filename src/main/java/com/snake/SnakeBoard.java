@@ -0,0 +1,283 @@
+package com.snake;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Trail segment and food count per board cell, using the same x/y layout as the walkable tiles.
+ * Counts instead of flags, since trails overlap while players stand on the start tile.
+ * Walkable cells are split into connected regions once, and only the region of the center tile, where players start,
+ * is reachable. Reachable cells without segments or food are kept in a free cell set for food spawning.
+ * Every change also updates the {@link SnakeStateHash}, which players compare to detect desyncs,
+ * and is published to the {@link SnakeEventLog}.
+ */
+public class SnakeBoard
+{
+	public static final int OUTSIDE = -1;
+	private static final int NO_REGION = -1;
+
+	@Getter
+	private final int gameSize;
+	private final int minX;
+	private final int maxY;
+	private final int plane;
+	private final int origin;
+	@Getter
+	private final int walkableCount;
+	@Getter
+	private final int reachableCount;
+
+	private final boolean[] walkable;
+	private final int[] regions;
+	private final int reachableRegion;
+	private final int[] segmentCounts;
+	private final int[] foodCounts;
+	private final SnakeFreeCells freeCells;
+	@Getter
+	private final SnakeStateHash stateHash = new SnakeStateHash();
+	@Getter
+	private final SnakeEventLog eventLog;
+
+	public SnakeBoard(int wallStartPoint, boolean[][] walkableTiles, SnakeEventLog eventLog)
+	{
+		this.eventLog = eventLog;
+		this.gameSize = walkableTiles.length;
+		this.minX = SnakePoint.getX(wallStartPoint) + 1;
+		this.maxY = SnakePoint.getY(wallStartPoint) - 1;
+		this.plane = SnakePoint.getPlane(wallStartPoint);
+		this.origin = SnakePoint.pack(minX, maxY, plane);
+
+		int cellCount = gameSize * gameSize;
+		walkable = new boolean[cellCount];
+		segmentCounts = new int[cellCount];
+		foodCounts = new int[cellCount];
+		freeCells = new SnakeFreeCells(cellCount);
+		int walkableCount = 0;
+		for (int index = 0; index < cellCount; index++)
+		{
+			walkable[index] = walkableTiles[index / gameSize][index % gameSize];
+			walkableCount += walkable[index] ? 1 : 0;
+		}
+		this.walkableCount = walkableCount;
+
+		// players stand on the start tile, even if it has collision flags
+		int center = (int) Math.ceil(gameSize / 2.0f) - 1;
+		int startIndex = center * gameSize + center;
+		walkable[startIndex] = true;
+
+		regions = new int[cellCount];
+		Arrays.fill(regions, NO_REGION);
+		int[] queue = new int[cellCount];
+		int regionCount = 0;
+		int reachableCount = 0;
+		for (int index = 0; index < cellCount; index++)
+		{
+			if (walkable[index] && regions[index] == NO_REGION)
+			{
+				int size = fillRegion(index, regionCount, queue);
+				if (regions[startIndex] == regionCount)
+				{
+					reachableCount = size;
+				}
+				regionCount++;
+			}
+		}
+		this.reachableRegion = regions[startIndex];
+		this.reachableCount = reachableCount;
+
+		clear();
+	}
+
+	/**
+	 * Removes all segments and food, leaving the board as it was when built.
+	 */
+	public void clear()
+	{
+		Arrays.fill(segmentCounts, 0);
+		Arrays.fill(foodCounts, 0);
+		stateHash.reset();
+		freeCells.clear();
+		for (int index = 0; index < walkable.length; index++)
+		{
+			updateFreeCell(index);
+		}
+	}
+
+	public int toIndex(int point)
+	{
+		int x = SnakePoint.getX(point) - minX;
+		int y = maxY - SnakePoint.getY(point);
+		if (x < 0 || x >= gameSize || y < 0 || y >= gameSize)
+		{
+			return OUTSIDE;
+		}
+		return x * gameSize + y;
+	}
+
+	public int toPoint(int index)
+	{
+		return SnakePoint.pack(minX + index / gameSize, maxY - index % gameSize, plane);
+	}
+
+	public boolean isWalkable(int index)
+	{
+		return walkable[index];
+	}
+
+	/**
+	 * @return whether players can walk from the start tile to the cell, ignoring trails
+	 */
+	public boolean isReachable(int index)
+	{
+		return regions[index] == reachableRegion;
+	}
+
+	/**
+	 * @return whether a walk between the cells exists, ignoring trails
+	 */
+	public boolean isConnected(int from, int to)
+	{
+		return regions[from] != NO_REGION && regions[from] == regions[to];
+	}
+
+	/**
+	 * Players can only step diagonally when both tiles next to the step are walkable, so walls do not
+	 * have to be walked through at their corner.
+	 *
+	 * @return whether a diagonal step between the cells is possible, ignoring trails
+	 */
+	public boolean isDiagonalOpen(int x, int y, int neighbourX, int neighbourY)
+	{
+		return walkable[neighbourX * gameSize + y] && walkable[x * gameSize + neighbourY];
+	}
+
+	public boolean isOccupied(int index)
+	{
+		return segmentCounts[index] != 0;
+	}
+
+	public void addSegment(int point, int playerId)
+	{
+		stateHash.addSegment(point - origin, playerId);
+		eventLog.publish(SnakeEventLog.HEAD_MOVED, playerId, point);
+		int index = toIndex(point);
+		if (index != OUTSIDE)
+		{
+			segmentCounts[index]++;
+			updateFreeCell(index);
+		}
+	}
+
+	public void removeSegment(int point, int playerId)
+	{
+		stateHash.removeSegment(point - origin, playerId);
+		eventLog.publish(SnakeEventLog.TAIL_FREED, playerId, point);
+		int index = toIndex(point);
+		if (index != OUTSIDE)
+		{
+			segmentCounts[index]--;
+			updateFreeCell(index);
+		}
+	}
+
+	public void moveFood(int from, int to, int playerId)
+	{
+		if (from != SnakePoint.NONE)
+		{
+			stateHash.removeFood(from - origin, playerId);
+		}
+		if (to != SnakePoint.NONE)
+		{
+			stateHash.addFood(to - origin, playerId);
+		}
+		eventLog.publish(SnakeEventLog.FOOD_MOVED, playerId, to);
+
+		int index = from == SnakePoint.NONE ? OUTSIDE : toIndex(from);
+		if (index != OUTSIDE)
+		{
+			foodCounts[index]--;
+			updateFreeCell(index);
+		}
+
+		index = to == SnakePoint.NONE ? OUTSIDE : toIndex(to);
+		if (index != OUTSIDE)
+		{
+			foodCounts[index]++;
+			updateFreeCell(index);
+		}
+	}
+
+	public void setPlayerAlive(int playerId, boolean isAlive)
+	{
+		stateHash.setAlive(playerId, isAlive);
+		if (!isAlive)
+		{
+			eventLog.publish(SnakeEventLog.DIED, playerId, 0);
+		}
+	}
+
+	public int getFreeCellCount()
+	{
+		return freeCells.size();
+	}
+
+	/**
+	 * Draws a rank into the free cells in index order, so the cell only depends on the board and the draw,
+	 * not on the moves that led to it.
+	 */
+	public int getRandomFreeCell(SnakeRandom random)
+	{
+		if (freeCells.size() == 0)
+		{
+			return OUTSIDE;
+		}
+		return freeCells.get(random.nextInt(freeCells.size()));
+	}
+
+	/**
+	 * Labels every walkable cell players can walk to from the first one, using the queue buffer shared by all regions.
+	 * Diagonal neighbours only count when the step is not blocked at a corner, see {@link #isDiagonalOpen}.
+	 *
+	 * @return the number of cells in the region
+	 */
+	private int fillRegion(int first, int region, int[] queue)
+	{
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = first;
+		regions[first] = region;
+		while (head < tail)
+		{
+			int index = queue[head++];
+			int x = index / gameSize;
+			int y = index % gameSize;
+			for (int neighbourX = Math.max(x - 1, 0); neighbourX <= Math.min(x + 1, gameSize - 1); neighbourX++)
+			{
+				for (int neighbourY = Math.max(y - 1, 0); neighbourY <= Math.min(y + 1, gameSize - 1); neighbourY++)
+				{
+					int neighbour = neighbourX * gameSize + neighbourY;
+					boolean isDiagonal = neighbourX != x && neighbourY != y;
+					if (walkable[neighbour] && regions[neighbour] == NO_REGION
+						&& (!isDiagonal || isDiagonalOpen(x, y, neighbourX, neighbourY)))
+					{
+						regions[neighbour] = region;
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return tail;
+	}
+
+	private void updateFreeCell(int index)
+	{
+		if (isReachable(index) && segmentCounts[index] == 0 && foodCounts[index] == 0)
+		{
+			freeCells.add(index);
+		}
+		else
+		{
+			freeCells.remove(index);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.snake;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.snake.BoardBuild")
+@Label("Snake Board Build")
+@Description("From starting a game until every board object is spawned")
+@Category({"RuneLite", "Snake"})
+@Enabled(false)
+class SnakeBoardBuildEvent extends Event
+{
+	@Label("Game Size")
+	int gameSize;
+
+	@Label("Player Count")
+	int playerCount;
+
+	@Label("Merged Models")
+	boolean mergeBoardModels;
+
+	@Label("Frames")
+	@Description("Client ticks spent spawning the board")
+	int frameCount;
+}
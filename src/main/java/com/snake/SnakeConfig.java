@@ -5,6 +5,7 @@ import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
 import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup(SnakeConfig.GROUP)
 public interface SnakeConfig extends Config
@@ -45,10 +46,46 @@ public interface SnakeConfig extends Config
 		return SnakeGridTheme.ORIGINAL;
 	}
 
+	@ConfigItem(
+		keyName = "mergeBoardModels",
+		name = "Merge board models",
+		description = "Draw the walls and tiles as a few merged models, faster for large boards on flat ground.",
+		position = 3
+	)
+	default boolean mergeBoardModels()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "boardBuildBudget",
+		name = "Board build budget",
+		description = "Time per frame spent spawning the board when a game starts.",
+		position = 4
+	)
+	@Units(Units.MILLISECONDS)
+	@Range(min = 1, max = 50)
+	default int boardBuildBudget()
+	{
+		return 4;
+	}
+
+	@ConfigItem(
+		keyName = "botCount",
+		name = "Bots",
+		description = "The number of computer controlled snakes playing against you.",
+		position = 5
+	)
+	@Range(max = 10)
+	default int botCount()
+	{
+		return 0;
+	}
+
 	@ConfigSection(
 		name = "Multiplayer options",
 		description = "Refer to the readme via support link for more info.",
-		position = 3
+		position = 6
 	)
 	String multiplayerOptionsSection = "multiplayerOptionsSection";
 
@@ -123,4 +160,68 @@ public interface SnakeConfig extends Config
 	{
 		return false;
 	}
+
+	@ConfigItem(
+		keyName = "showStateHash",
+		name = "Show state hash",
+		description = "Show the tick and a hash of the game state, which differ between players whose games are out of sync.",
+		position = 6,
+		section = multiplayerOptionsSection
+	)
+	default boolean showStateHash()
+	{
+		return false;
+	}
+
+	@ConfigSection(
+		name = "Replays",
+		description = "Recording games to replay them later.",
+		position = 7,
+		closedByDefault = true
+	)
+	String replaySection = "replaySection";
+
+	@ConfigItem(
+		keyName = "recordReplays",
+		name = "Record replays",
+		description = "Save every game to .runelite/snake/replays.",
+		position = 0,
+		section = replaySection
+	)
+	default boolean recordReplays()
+	{
+		return false;
+	}
+
+	@ConfigSection(
+		name = "Debug",
+		description = "Performance measurements of the game.",
+		position = 8,
+		closedByDefault = true
+	)
+	String debugSection = "debugSection";
+
+	@ConfigItem(
+		keyName = "showTickTimings",
+		name = "Show tick timings",
+		description = "Show p50 / p99 / max time of each tick phase in the overlay, in microseconds.",
+		position = 0,
+		section = debugSection
+	)
+	default boolean showTickTimings()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "dumpTickTimings",
+		name = "Dump tick timings",
+		description = "Write the tick phase timings to .runelite/snake when a game is over.",
+		position = 1,
+		section = debugSection
+	)
+	default boolean dumpTickTimings()
+	{
+		return false;
+	}
 }
@@ -2,391 +2,227 @@ package com.snake;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.TreeSet;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.Player;
-import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.util.ColorUtil;
 
+/**
+ * Connects {@link SnakeGame} to the RuneLite client: player locations, collision maps and overhead text.
+ */
 @Slf4j
 @Singleton
-public class SnakeController
+public class SnakeController implements SnakePositionSource, SnakeWalkabilitySource, SnakeOverheadTextSink
 {
-	public static final String READY_MESSAGE = "r";
-
-	public enum State
-	{
-		IDLE,
-		WAITING_TO_START,
-		READY,
-		PLAYING,
-		GAME_OVER,
-	}
-
-	private static final List<Color> PLAYER_COLORS = Arrays.asList(
-		Color.BLUE, Color.YELLOW, Color.MAGENTA, Color.CYAN, Color.RED
-	);
-	private static final int READY_COUNTDOWN_TICKS = 5;
-	private static final int MAX_RANDOM_POINT_TRIES = 100;
+	private static final int OVERHEAD_TEXT_DURATION = 50;
+	private static final int DEATH_ANIMATION_ID = 2925;
 
 	private final Client client;
+	private final SnakeSceneMapper sceneMapper;
+	private final SnakeGame game;
+	private final SnakeReplayRecorder replayRecorder;
 
-	@Getter
-	private State currentState = State.IDLE;
-
-	@Getter
-	private List<SnakePlayer> snakePlayers;
-	@Getter
-	private boolean[][] walkableTiles;
+	private final List<Player> players = new ArrayList<>();
 
+	private int[][] collisionFlags;
 	private WorldPoint wallStartPoint;
-	private int gameSize;
-	private boolean allowRun;
-	private boolean isSameFoodSpawn;
-
-	private int readyCount;
-	@Getter
-	private int readyTickCountdown;
-	private int deadCount;
-	private int gameOverDeadCount;
-
-	private Random generator;
 
 	@Inject
-	public SnakeController(Client client)
+	public SnakeController(Client client, SnakeSceneMapper sceneMapper, SnakeTickProfiler profiler, SnakeReplayRecorder replayRecorder)
 	{
 		this.client = client;
+		this.sceneMapper = sceneMapper;
+		this.game = new SnakeGame(this, this, this, profiler);
+		this.replayRecorder = replayRecorder;
 	}
 
-	public void initialize(List<String> playerNames, int gameSize, boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed)
+	public void initialize(List<String> playerNames, int gameSize, boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed,
+		int botCount, boolean recordReplay)
 	{
-		this.wallStartPoint = SnakeUtils.getWallStartPoint(client.getLocalPlayer().getWorldLocation(), gameSize);
-		this.gameSize = gameSize;
-		this.allowRun = allowRun;
-		this.isSameFoodSpawn = isSameFoodSpawn;
-		generator = new Random(isMultiplayer ? seed : System.nanoTime());
+		Player localPlayer = client.getLocalPlayer();
+		wallStartPoint = SnakeUtils.getWallStartPoint(localPlayer.getWorldLocation(), gameSize);
+		sceneMapper.setArea(wallStartPoint, gameSize);
+		collisionFlags = client.getCollisionMaps()[client.getPlane()].getFlags();
 
-		reset();
+		List<String> foundPlayerNames = findPlayers(playerNames);
+		game.initialize(foundPlayerNames, localPlayer.getName(), SnakeUtils.packWorldPoint(localPlayer.getWorldLocation()),
+			gameSize, allowRun, isMultiplayer, isSameFoodSpawn, seed, botCount);
+		startRecording(gameSize, allowRun, isMultiplayer, isSameFoodSpawn, seed, recordReplay);
+	}
+
+	/**
+	 * @return whether the local player still stands where the current game started, so {@link #rematch} can keep its board
+	 */
+	public boolean canRematch(int gameSize)
+	{
+		return game.canRematch(SnakeUtils.packWorldPoint(client.getLocalPlayer().getWorldLocation()), gameSize);
+	}
 
-		List<Player> players = client.getPlayers();
-		String currentPlayer = client.getLocalPlayer().getName();
-		walkableTiles = getWalkableTiles(wallStartPoint.dx(1).dy(-1));
+	/**
+	 * Starts a new game on the current board, without reading the collision map again.
+	 */
+	public void rematch(List<String> playerNames, int gameSize, boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed,
+		int botCount, boolean recordReplay)
+	{
+		replayRecorder.stop();
+		List<String> foundPlayerNames = findPlayers(playerNames);
+		game.rematch(foundPlayerNames, client.getLocalPlayer().getName(), allowRun, isMultiplayer, isSameFoodSpawn, seed, botCount);
+		startRecording(gameSize, allowRun, isMultiplayer, isSameFoodSpawn, seed, recordReplay);
+	}
 
-		int colorIndex = 0;
-		TreeSet<String> uniquePlayerNames = new TreeSet<>(playerNames);
-		for (String playerName : uniquePlayerNames)
+	/**
+	 * @return the names of the players found in the scene, sorted so every client gives them the same ids
+	 */
+	private List<String> findPlayers(List<String> playerNames)
+	{
+		players.clear();
+		Map<String, Player> clientPlayers = SnakeUtils.indexPlayersByName(client.getPlayers());
+		List<String> foundPlayerNames = new ArrayList<>();
+		for (String playerName : new TreeSet<>(playerNames))
 		{
-			Player player = SnakeUtils.findPlayer(players, playerName);
+			Player player = clientPlayers.get(playerName);
 			if (player != null)
 			{
-				boolean isActivePlayer = playerName.equals(currentPlayer);
-				Color color = PLAYER_COLORS.get(colorIndex);
-				if (isActivePlayer)
-				{
-					color = Color.GREEN;
-				}
-				snakePlayers.add(new SnakePlayer(player, color, isActivePlayer));
-				colorIndex = (colorIndex + 1) % PLAYER_COLORS.size();
+				players.add(player);
+				foundPlayerNames.add(playerName);
 			}
 		}
+		return foundPlayerNames;
+	}
 
-		gameOverDeadCount = snakePlayers.size() - (isMultiplayer && snakePlayers.size() != 1 ? 1 : 0);
-
-		if (!isMultiplayer)
-		{
-			snakePlayers.get(0).setReady(true);
-			readyTickCountdown = READY_COUNTDOWN_TICKS;
-			currentState = State.READY;
-		}
-		else
+	private void startRecording(int gameSize, boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed, boolean recordReplay)
+	{
+		if (recordReplay)
 		{
-			currentState = State.WAITING_TO_START;
+			replayRecorder.start(SnakeUtils.packWorldPoint(wallStartPoint), gameSize, allowRun, isMultiplayer, isSameFoodSpawn, seed,
+				game.getWalkableTiles(), game.getCurrentState(), game.getEventLog(), game.getSnakePlayers());
 		}
 	}
 
 	public void reset()
 	{
-		snakePlayers = new ArrayList<>();
-		readyCount = 0;
-		readyTickCountdown = 0;
-		deadCount = 0;
-		this.currentState = State.IDLE;
+		replayRecorder.stop();
+		game.reset();
+		players.clear();
 	}
 
-	public void tick()
+	/**
+	 * Ends the game but keeps the board, see {@link SnakeGame#stop()}.
+	 */
+	public void stop()
 	{
-		State nextState = currentState;
-		switch (currentState)
-		{
-			case WAITING_TO_START:
-				nextState = waiting();
-				break;
-			case READY:
-				nextState = ready();
-				break;
-			case PLAYING:
-				nextState = playing();
-				break;
-			case IDLE:
-			case GAME_OVER:
-				break;
-		}
-		currentState = nextState;
+		replayRecorder.stop();
+		game.stop();
+		players.clear();
 	}
 
-	public void handleChatMessage(String playerName, String message)
+	public void tick()
 	{
-		if (currentState == State.WAITING_TO_START && message.equals(READY_MESSAGE))
+		SnakeGame.State previousState = game.getCurrentState();
+		game.tick();
+
+		if (replayRecorder.isRecording() && previousState != SnakeGame.State.IDLE && previousState != SnakeGame.State.GAME_OVER)
 		{
-			for (SnakePlayer snakePlayer : snakePlayers)
+			replayRecorder.recordTick(game.getCurrentState(), game.getSnakePlayers());
+			if (game.getCurrentState() == SnakeGame.State.GAME_OVER)
 			{
-				if (snakePlayer.getPlayerName().equals(playerName) && !snakePlayer.isReady())
-				{
-					snakePlayer.setReady(true);
-					readyCount++;
-				}
+				replayRecorder.stop();
 			}
 		}
 	}
 
-	private State waiting()
+	public void handleChatMessage(String playerName, String message)
 	{
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			snakePlayer.updateLocation();
-			snakePlayer.moveSnakeTrail();
-		}
-
-		if (readyCount == snakePlayers.size())
-		{
-			readyTickCountdown = READY_COUNTDOWN_TICKS;
-			return State.READY;
-		}
-		return currentState;
+		game.handleChatMessage(playerName, message);
 	}
 
-	private State ready()
+	public SnakeGame.State getCurrentState()
 	{
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			snakePlayer.updateLocation();
-			snakePlayer.moveSnakeTrail();
-		}
-
-		readyTickCountdown--;
-		setAllOverheadText(String.valueOf(readyTickCountdown));
-		if (readyTickCountdown == 0)
-		{
-			for (SnakePlayer snakePlayer : snakePlayers)
-			{
-				snakePlayer.fillInitialSnakeTrail();
-			}
-			setAllOverheadText("Go!");
-
-			respawnAllFood();
-			return State.PLAYING;
-		}
-		return currentState;
+		return game.getCurrentState();
 	}
 
-	private State playing()
+	public List<SnakePlayer> getSnakePlayers()
 	{
-		updateAllPlayers();
-
-		if (deadCount >= gameOverDeadCount)
-		{
-			return State.GAME_OVER;
-		}
-
-		updatePlayersOnFood();
-		updateAllSnakeTrails();
-
-		return currentState;
+		return game.getSnakePlayers();
 	}
 
-	private void updateAllPlayers()
+	public boolean[][] getWalkableTiles()
 	{
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			if (snakePlayer.isAlive())
-			{
-				snakePlayer.updateLocation();
-				boolean isAlive = checkValidMovement(snakePlayer);
-				if (!isAlive)
-				{
-					snakePlayer.setAlive(false);
-					deadCount++;
-				}
-			}
-		}
+		return game.getWalkableTiles();
 	}
 
-	private void updatePlayersOnFood()
+	public int getReadyTickCountdown()
 	{
-		List<SnakePlayer> onFoodPlayers = new ArrayList<>();
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			if (snakePlayer.isAlive() && snakePlayer.getCurrentLocation().equals(snakePlayer.getFoodLocation()))
-			{
-				onFoodPlayers.add(snakePlayer);
-			}
-		}
-
-		if (onFoodPlayers.size() >= 1)
-		{
-			if (isSameFoodSpawn)
-			{
-				int randomIndex = generator.nextInt(onFoodPlayers.size());
-				SnakePlayer snakePlayerGrow = onFoodPlayers.get(randomIndex);
-				snakePlayerGrow.setShouldGrow(true);
-				snakePlayerGrow.increaseScore();
-				snakePlayerGrow.setOverHeadText("+1");
-				respawnAllFood();
-			}
-			else
-			{
-				for (SnakePlayer snakePlayerGrow : onFoodPlayers)
-				{
-					snakePlayerGrow.setShouldGrow(true);
-					snakePlayerGrow.setOverHeadText("+1");
-					snakePlayerGrow.increaseScore();
-					snakePlayerGrow.setFoodLocation(getRandomPointInGrid());
-				}
-			}
-		}
+		return game.getReadyTickCountdown();
 	}
 
-	private void updateAllSnakeTrails()
+	public int getStateVersion()
 	{
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			if (snakePlayer.isAlive())
-			{
-				snakePlayer.moveSnakeTrail();
-			}
-		}
+		return game.getStateVersion();
 	}
 
-	private boolean checkValidMovement(SnakePlayer snakePlayer)
+	public int getPlayingTickCount()
 	{
-		WorldPoint playerWorldPosition = snakePlayer.getCurrentLocation();
-		boolean inGameBoundary =
-			playerWorldPosition.getX() > wallStartPoint.getX() &&
-				playerWorldPosition.getX() <= (wallStartPoint.getX() + gameSize) &&
-				playerWorldPosition.getY() < wallStartPoint.getY() &&
-				playerWorldPosition.getY() >= (wallStartPoint.getY() - gameSize);
-
-		if (!inGameBoundary)
-		{
-			return false;
-		}
-
-		if (!allowRun && snakePlayer.isRunning())
-		{
-			return false;
-		}
-
-		return !checkCollision(snakePlayer);
+		return game.getPlayingTickCount();
 	}
 
-	private boolean checkCollision(SnakePlayer sPlayer)
+	public SnakeEventLog getEventLog()
 	{
-		WorldPoint playerLocation = sPlayer.getCurrentLocation();
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			for (WorldPoint trailPoint : snakePlayer.getSnakeTrail())
-			{
-				if (trailPoint.equals(playerLocation))
-				{
-					return true;
-				}
-			}
-		}
-		return false;
+		return game.getEventLog();
 	}
 
-	private void setAllOverheadText(String text)
+	public long getStateHash()
 	{
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			snakePlayer.setOverHeadText(text);
-		}
+		return game.getStateHash();
 	}
 
-	private void respawnAllFood()
+	public boolean isBoardBuilt()
 	{
-		if (isSameFoodSpawn)
-		{
-			WorldPoint foodLocation = getRandomPointInGrid();
-			for (SnakePlayer snakePlayer : snakePlayers)
-			{
-				snakePlayer.setFoodLocation(foodLocation);
-			}
-		}
-		else
-		{
-			for (SnakePlayer snakePlayer : snakePlayers)
-			{
-				snakePlayer.setFoodLocation(getRandomPointInGrid());
-			}
-		}
+		return game.isBoardBuilt();
 	}
 
-	private WorldPoint getRandomPointInGrid()
+	public void setBoardBuilt(boolean isBoardBuilt)
 	{
-		WorldPoint randomPoint;
-		int x;
-		int y;
-		int count = 0;
-		do
-		{
-			x = generator.nextInt(gameSize);
-			y = generator.nextInt(gameSize);
-			randomPoint = wallStartPoint.dx(x + 1).dy(-(y + 1));
-			count++;
-		} while (count < MAX_RANDOM_POINT_TRIES && !isFoodSpawnValid(randomPoint, x, y));
+		game.setBoardBuilt(isBoardBuilt);
+	}
 
-		return randomPoint;
+	@Override
+	public int getLocation(int playerId)
+	{
+		return SnakeUtils.packWorldPoint(players.get(playerId).getWorldLocation());
 	}
 
-	private boolean isFoodSpawnValid(WorldPoint point, int x, int y)
+	@Override
+	public boolean isWalkable(int point)
 	{
-		if (!walkableTiles[x][y])
+		int x = sceneMapper.toSceneX(SnakePoint.getX(point));
+		int y = sceneMapper.toSceneY(SnakePoint.getY(point));
+		if (x < 0 || x >= collisionFlags.length || y < 0 || y >= collisionFlags[x].length)
 		{
 			return false;
 		}
-
-		for (SnakePlayer snakePlayer : snakePlayers)
-		{
-			if (point.equals(snakePlayer.getFoodLocation()))
-			{
-				return false;
-			}
-		}
-		return true;
+		return collisionFlags[x][y] == 0;
 	}
 
-	private boolean[][] getWalkableTiles(WorldPoint gridStart)
+	@Override
+	public void setOverheadText(int playerId, String text, Color color)
 	{
-		boolean[][] walkable = new boolean[gameSize][gameSize];
+		Player player = players.get(playerId);
+		player.setOverheadCycle(OVERHEAD_TEXT_DURATION);
+		player.setOverheadText(ColorUtil.wrapWithColorTag(text, color));
+	}
 
-		int[][] flags = client.getCollisionMaps()[client.getPlane()].getFlags();
-		LocalPoint gridStartInScene = SnakeUtils.getWorldPointLocationInScene(client, gridStart);
-		for (int x = 0; x < gameSize; ++x)
-		{
-			for (int y = 0; y < gameSize; ++y)
-			{
-				int data = flags[x + gridStartInScene.getX()][gridStartInScene.getY() - y];
-				walkable[x][y] = data == 0;
-			}
-		}
-		return walkable;
+	@Override
+	public void playDeathAnimation(int playerId)
+	{
+		Player player = players.get(playerId);
+		player.setAnimation(DEATH_ANIMATION_ID);
+		player.setAnimationFrame(0);
 	}
 }
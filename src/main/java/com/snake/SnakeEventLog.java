@@ -0,0 +1,100 @@
+package com.snake;
+
+/**
+ * Ring buffer of the changes made to a game, written by the {@link SnakeBoard}, players and game as they happen.
+ * Each event is a single long of type, player id and value, so publishing never allocates.
+ * <p>
+ * Consumers keep their own cursor, the sequence of the next event to read, and only look at events added since.
+ * The log does not know its consumers, so an idle consumer costs nothing. A consumer that fell more than the
+ * capacity behind has missed events and has to read the full state instead, see {@link #isOverrun}.
+ */
+public class SnakeEventLog
+{
+	/**
+	 * A trail segment was added at the point in the value.
+	 */
+	public static final int HEAD_MOVED = 0;
+	/**
+	 * A trail segment was removed from the point in the value.
+	 */
+	public static final int TAIL_FREED = 1;
+	/**
+	 * The player ate food, the value is the new score.
+	 */
+	public static final int GREW = 2;
+	/**
+	 * The food moved to the point in the value, which can be {@link SnakePoint#NONE}.
+	 */
+	public static final int FOOD_MOVED = 3;
+	public static final int DIED = 4;
+	/**
+	 * The value is the ordinal of the new {@link SnakeGame.State}, the player id is unused.
+	 */
+	public static final int STATE_CHANGED = 5;
+
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+
+	private final long[] records;
+	private final int mask;
+	private long sequence;
+
+	public SnakeEventLog()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity a power of two
+	 */
+	public SnakeEventLog(int capacity)
+	{
+		if (Integer.bitCount(capacity) != 1)
+		{
+			throw new IllegalArgumentException("capacity must be a power of two");
+		}
+		records = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	public void publish(int type, int playerId, int value)
+	{
+		records[(int) sequence & mask] = (long) type << 56 | (long) (playerId & 0xffffff) << 32 | (value & 0xffffffffL);
+		sequence++;
+	}
+
+	/**
+	 * @return the sequence the next event will get, which consumers read up to
+	 */
+	public long getSequence()
+	{
+		return sequence;
+	}
+
+	/**
+	 * @return whether events after the cursor were already overwritten
+	 */
+	public boolean isOverrun(long cursor)
+	{
+		return sequence - cursor > records.length;
+	}
+
+	public long get(long eventSequence)
+	{
+		return records[(int) eventSequence & mask];
+	}
+
+	public static int getType(long event)
+	{
+		return (int) (event >>> 56);
+	}
+
+	public static int getPlayerId(long event)
+	{
+		return (int) (event >>> 32) & 0xffffff;
+	}
+
+	public static int getValue(long event)
+	{
+		return (int) event;
+	}
+}
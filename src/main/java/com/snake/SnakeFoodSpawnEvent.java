@@ -0,0 +1,34 @@
+package com.snake;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+@Name("com.snake.FoodSpawn")
+@Label("Snake Food Spawn")
+@Description("A food location picked from the free board cells")
+@Category({"RuneLite", "Snake"})
+@Enabled(false)
+class SnakeFoodSpawnEvent extends Event
+{
+	@Label("Found")
+	@Description("False when no free cell was left")
+	boolean found;
+
+	@Label("Free Cells")
+	int freeCellCount;
+
+	@Label("Walkable Cells")
+	int walkableCellCount;
+
+	@Label("Reachable Cells")
+	int reachableCellCount;
+
+	@Label("Fill Ratio")
+	@Percentage
+	double fillRatio;
+}
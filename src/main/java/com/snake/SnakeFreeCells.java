@@ -0,0 +1,110 @@
+package com.snake;
+
+import java.util.Arrays;
+
+/**
+ * Set of board cell indexes, stored as a bitset so cells are always ordered by index.
+ * The n-th cell only depends on which cells are in the set, not on the order they were added and removed in,
+ * so clients with the same board pick the same cell for the same random draw.
+ * <p>
+ * A Fenwick tree over the bit counts of the words finds the word a rank falls in, so drawing a cell takes
+ * a logarithmic number of steps instead of a scan over all words, which is 59 of them on a 61x61 board.
+ */
+public class SnakeFreeCells
+{
+	private final long[] words;
+	// 1-based, entry i holds the bit count of the words i - (i & -i) up to i - 1
+	private final int[] wordCounts;
+	private int size;
+
+	public SnakeFreeCells(int cellCount)
+	{
+		words = new long[(cellCount + Long.SIZE - 1) / Long.SIZE];
+		wordCounts = new int[words.length + 1];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Descends the Fenwick tree to the word the cell is in, then halves that word until the cell's bit is left.
+	 *
+	 * @param rank between 0 and {@link #size()}
+	 * @return the cell with this many smaller cells in the set
+	 */
+	public int get(int rank)
+	{
+		if (rank < 0 || rank >= size)
+		{
+			throw new IndexOutOfBoundsException("rank " + rank + " outside of a set of " + size);
+		}
+
+		int wordIndex = 0;
+		for (int step = Integer.highestOneBit(words.length); step > 0; step >>= 1)
+		{
+			int next = wordIndex + step;
+			if (next <= words.length && wordCounts[next] <= rank)
+			{
+				wordIndex = next;
+				rank -= wordCounts[next];
+			}
+		}
+
+		long word = words[wordIndex];
+		int bitIndex = 0;
+		for (int width = Long.SIZE / 2; width > 0; width >>= 1)
+		{
+			int lowCount = Long.bitCount(word >>> bitIndex & (1L << width) - 1);
+			if (rank >= lowCount)
+			{
+				rank -= lowCount;
+				bitIndex += width;
+			}
+		}
+		return wordIndex * Long.SIZE + bitIndex;
+	}
+
+	public boolean contains(int cell)
+	{
+		return (words[cell / Long.SIZE] & 1L << cell) != 0;
+	}
+
+	public void add(int cell)
+	{
+		if (contains(cell))
+		{
+			return;
+		}
+		words[cell / Long.SIZE] |= 1L << cell;
+		updateWordCount(cell / Long.SIZE, 1);
+		size++;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(words, 0);
+		Arrays.fill(wordCounts, 0);
+		size = 0;
+	}
+
+	public void remove(int cell)
+	{
+		if (!contains(cell))
+		{
+			return;
+		}
+		words[cell / Long.SIZE] &= ~(1L << cell);
+		updateWordCount(cell / Long.SIZE, -1);
+		size--;
+	}
+
+	private void updateWordCount(int wordIndex, int delta)
+	{
+		for (int i = wordIndex + 1; i < wordCounts.length; i += i & -i)
+		{
+			wordCounts[i] += delta;
+		}
+	}
+}
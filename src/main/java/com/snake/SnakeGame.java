@@ -0,0 +1,678 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * The snake game rules, independent of the RuneLite client.
+ * Player locations, walkable tiles and overhead text go through the given sources and sink,
+ * so the same state machine runs in the plugin and headless.
+ */
+public class SnakeGame
+{
+	public static final String READY_MESSAGE = "r";
+
+	public enum State
+	{
+		IDLE,
+		WAITING_TO_START,
+		READY,
+		PLAYING,
+		GAME_OVER,
+	}
+
+	private static final List<Color> PLAYER_COLORS = Arrays.asList(
+		Color.BLUE, Color.YELLOW, Color.MAGENTA, Color.CYAN, Color.RED
+	);
+	// hue step that keeps any run of generated colors spread around the color wheel
+	private static final double GOLDEN_RATIO_CONJUGATE = 0.6180339887498949;
+	private static final float GREEN_HUE = 1 / 3f;
+	private static final float GREEN_HUE_MARGIN = 0.06f;
+	private static final int READY_COUNTDOWN_TICKS = 5;
+	private static final String BOT_NAME_PREFIX = "Bot ";
+	private static final long SHARED_FOOD_STREAM = 1;
+	private static final long GROW_STREAM = 2;
+	private static final long PLAYER_FOOD_STREAM = 1 << 16;
+
+	private final SnakePositionSource positionSource;
+	private final SnakeWalkabilitySource walkabilitySource;
+	private final SnakeOverheadTextSink overheadTextSink;
+	private final SnakeTickProfiler profiler;
+
+	@Getter
+	private State currentState = State.IDLE;
+	@Getter
+	private final SnakeEventLog eventLog = new SnakeEventLog();
+
+	@Getter
+	private List<SnakePlayer> snakePlayers = new ArrayList<>();
+	private final Map<String, SnakePlayer> playersByName = new HashMap<>();
+	@Getter
+	private boolean[][] walkableTiles;
+	private SnakeBoard board;
+	private int startLocation;
+	private SnakePathfinder pathfinder;
+	private int humanPlayerCount;
+
+	private boolean allowRun;
+	private boolean isSameFoodSpawn;
+
+	private int readyCount;
+	@Getter
+	private int readyTickCountdown;
+	@Getter
+	private boolean isBoardBuilt = true;
+	private int deadCount;
+	private int gameOverDeadCount;
+
+	private SnakeRandom sharedFoodRandom;
+	private SnakeRandom growRandom;
+	private SnakeRandom[] playerFoodRandoms;
+
+	private final List<SnakePlayer> onFoodPlayers = new ArrayList<>();
+
+	/**
+	 * Increases whenever anything shown to players may have changed, so views can skip unchanged frames.
+	 */
+	@Getter
+	private int stateVersion;
+
+	/**
+	 * Ticks since the game started playing. Unlike the waiting ticks, these line up between the clients
+	 * of a multiplayer game, so this is shown next to the state hash.
+	 */
+	@Getter
+	private int playingTickCount;
+
+	public SnakeGame(SnakePositionSource positionSource, SnakeWalkabilitySource walkabilitySource, SnakeOverheadTextSink overheadTextSink)
+	{
+		this(positionSource, walkabilitySource, overheadTextSink, new SnakeTickProfiler());
+	}
+
+	public SnakeGame(SnakePositionSource positionSource, SnakeWalkabilitySource walkabilitySource, SnakeOverheadTextSink overheadTextSink,
+		SnakeTickProfiler profiler)
+	{
+		this.positionSource = positionSource;
+		this.walkabilitySource = walkabilitySource;
+		this.overheadTextSink = overheadTextSink;
+		this.profiler = profiler;
+	}
+
+	/**
+	 * @param playerNames the participating players, in player id order
+	 * @param activePlayerName the local player, drawn in green
+	 * @param startLocation the packed location the board is centered on
+	 * @param botCount the number of bots added after the players, moved by the game itself
+	 */
+	public void initialize(List<String> playerNames, String activePlayerName, int startLocation, int gameSize,
+		boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed, int botCount)
+	{
+		reset();
+
+		this.startLocation = startLocation;
+		int offset = (int) Math.ceil(gameSize / 2.0f);
+		int wallStartPoint = SnakePoint.pack(SnakePoint.getX(startLocation) - offset,
+			SnakePoint.getY(startLocation) + offset, SnakePoint.getPlane(startLocation));
+		walkableTiles = getWalkableTiles(wallStartPoint, gameSize);
+		board = new SnakeBoard(wallStartPoint, walkableTiles, eventLog);
+
+		start(playerNames, activePlayerName, allowRun, isMultiplayer, isSameFoodSpawn, seed, botCount);
+	}
+
+	/**
+	 * @return whether {@link #rematch} can be used for a game of this size centered on the start location
+	 */
+	public boolean canRematch(int startLocation, int gameSize)
+	{
+		return board != null && this.startLocation == startLocation && board.getGameSize() == gameSize;
+	}
+
+	/**
+	 * Starts a new game on the board of the current one, like {@link #initialize} with the same start location and size.
+	 * Only the snakes and food are cleared, so the walkable tiles are not read again and the reachable region is kept.
+	 */
+	public void rematch(List<String> playerNames, String activePlayerName, boolean allowRun, boolean isMultiplayer,
+		boolean isSameFoodSpawn, int seed, int botCount)
+	{
+		board.clear();
+		clearState();
+		start(playerNames, activePlayerName, allowRun, isMultiplayer, isSameFoodSpawn, seed, botCount);
+	}
+
+	private void start(List<String> playerNames, String activePlayerName, boolean allowRun, boolean isMultiplayer,
+		boolean isSameFoodSpawn, int seed, int botCount)
+	{
+		this.allowRun = allowRun;
+		this.isSameFoodSpawn = isSameFoodSpawn;
+		if (botCount == 0)
+		{
+			pathfinder = null;
+		}
+		else if (pathfinder == null)
+		{
+			pathfinder = new SnakePathfinder(board);
+		}
+		humanPlayerCount = playerNames.size();
+
+		int colorIndex = 0;
+		for (String playerName : playerNames)
+		{
+			boolean isActivePlayer = playerName.equals(activePlayerName);
+			Color color = getPlayerColor(colorIndex);
+			if (isActivePlayer)
+			{
+				color = Color.GREEN;
+			}
+			int playerId = snakePlayers.size();
+			snakePlayers.add(new SnakePlayer(playerId, playerName, positionSource.getLocation(playerId), board, color, isActivePlayer));
+			colorIndex++;
+		}
+
+		for (int i = 0; i < botCount; i++)
+		{
+			SnakePlayer bot = new SnakePlayer(snakePlayers.size(), BOT_NAME_PREFIX + (i + 1), startLocation, board,
+				getPlayerColor(colorIndex), false);
+			bot.setReady(true);
+			readyCount++;
+			snakePlayers.add(bot);
+			colorIndex++;
+		}
+
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			playersByName.put(snakePlayer.getPlayerName(), snakePlayer);
+		}
+
+		SnakeRandom random = new SnakeRandom(isMultiplayer ? seed : System.nanoTime());
+		sharedFoodRandom = random.split(SHARED_FOOD_STREAM);
+		growRandom = random.split(GROW_STREAM);
+		playerFoodRandoms = new SnakeRandom[snakePlayers.size()];
+		for (int i = 0; i < playerFoodRandoms.length; i++)
+		{
+			playerFoodRandoms[i] = random.split(PLAYER_FOOD_STREAM + i);
+		}
+
+		boolean hasOpponents = isMultiplayer || botCount > 0;
+		gameOverDeadCount = snakePlayers.size() - (hasOpponents && snakePlayers.size() != 1 ? 1 : 0);
+
+		if (!isMultiplayer)
+		{
+			snakePlayers.get(0).setReady(true);
+			readyTickCountdown = READY_COUNTDOWN_TICKS;
+			setState(State.READY);
+		}
+		else
+		{
+			setState(State.WAITING_TO_START);
+		}
+		stateVersion++;
+	}
+
+	/**
+	 * Ends the game and forgets its board.
+	 */
+	public void reset()
+	{
+		board = null;
+		pathfinder = null;
+		clearState();
+	}
+
+	/**
+	 * Ends the game but keeps its board, so the next game can be a {@link #rematch}.
+	 */
+	public void stop()
+	{
+		if (board != null)
+		{
+			board.clear();
+		}
+		clearState();
+	}
+
+	private void clearState()
+	{
+		snakePlayers = new ArrayList<>();
+		playersByName.clear();
+		readyCount = 0;
+		readyTickCountdown = 0;
+		deadCount = 0;
+		playingTickCount = 0;
+		setState(State.IDLE);
+		stateVersion++;
+	}
+
+	public void tick()
+	{
+		long tickStart = profiler.start();
+		SnakeTickEvent tickEvent = new SnakeTickEvent();
+		tickEvent.begin();
+		State nextState = currentState;
+		switch (currentState)
+		{
+			case WAITING_TO_START:
+				nextState = waiting();
+				break;
+			case READY:
+				nextState = ready();
+				break;
+			case PLAYING:
+				nextState = playing();
+				playingTickCount++;
+				break;
+			case IDLE:
+			case GAME_OVER:
+				return;
+		}
+		if (tickEvent.shouldCommit())
+		{
+			tickEvent.state = currentState.name();
+			tickEvent.playerCount = snakePlayers.size();
+			tickEvent.totalTrailLength = getTotalTrailLength();
+			tickEvent.commit();
+		}
+		setState(nextState);
+		stateVersion++;
+		profiler.stop(SnakeTickProfiler.Phase.TICK, tickStart);
+	}
+
+	private void setState(State state)
+	{
+		if (state != currentState)
+		{
+			currentState = state;
+			eventLog.publish(SnakeEventLog.STATE_CHANGED, 0, state.ordinal());
+		}
+	}
+
+	/**
+	 * @return the {@link SnakeStateHash} of the board, identical on every client that is in sync
+	 */
+	public long getStateHash()
+	{
+		return board == null ? 0 : board.getStateHash().getValue();
+	}
+
+	public void setBoardBuilt(boolean isBoardBuilt)
+	{
+		if (this.isBoardBuilt != isBoardBuilt)
+		{
+			this.isBoardBuilt = isBoardBuilt;
+			stateVersion++;
+		}
+	}
+
+	public void handleChatMessage(String playerName, String message)
+	{
+		if (currentState != State.WAITING_TO_START || !message.equals(READY_MESSAGE))
+		{
+			return;
+		}
+
+		SnakePlayer snakePlayer = playersByName.get(playerName);
+		if (snakePlayer != null && !snakePlayer.isReady())
+		{
+			snakePlayer.setReady(true);
+			readyCount++;
+			stateVersion++;
+		}
+	}
+
+	/**
+	 * The fixed colors first, then hues a golden angle apart, skipping the green of the local player.
+	 */
+	private static Color getPlayerColor(int colorIndex)
+	{
+		if (colorIndex < PLAYER_COLORS.size())
+		{
+			return PLAYER_COLORS.get(colorIndex);
+		}
+
+		float hue = (float) (colorIndex * GOLDEN_RATIO_CONJUGATE % 1);
+		if (Math.abs(hue - GREEN_HUE) < GREEN_HUE_MARGIN)
+		{
+			hue += 2 * GREEN_HUE_MARGIN;
+		}
+		float brightness = colorIndex % 2 == 0 ? 1 : 0.75f;
+		return Color.getHSBColor(hue, 0.85f, brightness);
+	}
+
+	private State waiting()
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			updateLocation(snakePlayer);
+			snakePlayer.moveSnakeTrail();
+		}
+
+		if (readyCount == snakePlayers.size())
+		{
+			readyTickCountdown = READY_COUNTDOWN_TICKS;
+			return State.READY;
+		}
+		return currentState;
+	}
+
+	private State ready()
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			updateLocation(snakePlayer);
+			snakePlayer.moveSnakeTrail();
+		}
+
+		if (!isBoardBuilt)
+		{
+			return currentState;
+		}
+
+		readyTickCountdown--;
+		setAllOverheadText(String.valueOf(readyTickCountdown));
+		if (readyTickCountdown == 0)
+		{
+			for (SnakePlayer snakePlayer : snakePlayers)
+			{
+				snakePlayer.fillInitialSnakeTrail();
+			}
+			setAllOverheadText("Go!");
+
+			respawnAllFood();
+			return State.PLAYING;
+		}
+		return currentState;
+	}
+
+	private State playing()
+	{
+		long start = profiler.start();
+		updateAllLocations();
+		profiler.stop(SnakeTickProfiler.Phase.LOCATION_UPDATE, start);
+
+		start = profiler.start();
+		validateAllMovements();
+		profiler.stop(SnakeTickProfiler.Phase.MOVEMENT_VALIDATION, start);
+
+		if (deadCount >= gameOverDeadCount)
+		{
+			return State.GAME_OVER;
+		}
+
+		// eaten food respawns after the trails moved, so it can not land on a tile a head just moved to
+		start = profiler.start();
+		growPlayersOnFood();
+		updateAllSnakeTrails();
+		profiler.stop(SnakeTickProfiler.Phase.TRAIL_MOVEMENT, start);
+
+		start = profiler.start();
+		respawnEatenFood();
+		profiler.stop(SnakeTickProfiler.Phase.FOOD, start);
+
+		return currentState;
+	}
+
+	private void updateLocation(SnakePlayer snakePlayer)
+	{
+		if (isBot(snakePlayer))
+		{
+			snakePlayer.updateLocation(getBotLocation(snakePlayer));
+		}
+		else
+		{
+			snakePlayer.updateLocation(positionSource.getLocation(snakePlayer.getId()));
+		}
+	}
+
+	private boolean isBot(SnakePlayer snakePlayer)
+	{
+		return snakePlayer.getId() >= humanPlayerCount;
+	}
+
+	/**
+	 * Bots wait on the start tile until the game starts, then walk towards their food.
+	 */
+	private int getBotLocation(SnakePlayer bot)
+	{
+		if (currentState != State.PLAYING)
+		{
+			return bot.getCurrentLocation();
+		}
+
+		int from = board.toIndex(bot.getCurrentLocation());
+		int target = bot.getFoodLocation() == SnakePoint.NONE ? SnakeBoard.OUTSIDE : board.toIndex(bot.getFoodLocation());
+		int step = from == SnakeBoard.OUTSIDE ? SnakeBoard.OUTSIDE : pathfinder.findNextStep(from, target, bot.getId());
+		// a boxed in bot stays in place and runs into its own trail
+		return step == SnakeBoard.OUTSIDE ? bot.getCurrentLocation() : board.toPoint(step);
+	}
+
+	private void updateAllLocations()
+	{
+		if (pathfinder != null)
+		{
+			pathfinder.clearReservations();
+		}
+
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (snakePlayer.isAlive())
+			{
+				updateLocation(snakePlayer);
+				reserveLocation(snakePlayer);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the bots after this player from moving onto the tile it just moved to.
+	 */
+	private void reserveLocation(SnakePlayer snakePlayer)
+	{
+		int index = pathfinder == null ? SnakeBoard.OUTSIDE : board.toIndex(snakePlayer.getCurrentLocation());
+		if (index != SnakeBoard.OUTSIDE)
+		{
+			pathfinder.reserve(index);
+		}
+	}
+
+	private void validateAllMovements()
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (snakePlayer.isAlive())
+			{
+				boolean isAlive = checkValidMovement(snakePlayer);
+				if (!isAlive)
+				{
+					setOverheadText(snakePlayer, "Game Over!");
+					if (!isBot(snakePlayer))
+					{
+						overheadTextSink.playDeathAnimation(snakePlayer.getId());
+					}
+					snakePlayer.setAlive(false);
+					deadCount++;
+				}
+			}
+		}
+	}
+
+	private void growPlayersOnFood()
+	{
+		onFoodPlayers.clear();
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (snakePlayer.isAlive() && snakePlayer.getCurrentLocation() == snakePlayer.getFoodLocation())
+			{
+				onFoodPlayers.add(snakePlayer);
+			}
+		}
+
+		if (onFoodPlayers.size() >= 1)
+		{
+			if (isSameFoodSpawn)
+			{
+				int randomIndex = growRandom.nextInt(onFoodPlayers.size());
+				SnakePlayer snakePlayerGrow = onFoodPlayers.get(randomIndex);
+				snakePlayerGrow.setShouldGrow(true);
+				snakePlayerGrow.increaseScore();
+				setOverheadText(snakePlayerGrow, "+1");
+			}
+			else
+			{
+				for (SnakePlayer snakePlayerGrow : onFoodPlayers)
+				{
+					snakePlayerGrow.setShouldGrow(true);
+					setOverheadText(snakePlayerGrow, "+1");
+					snakePlayerGrow.increaseScore();
+				}
+			}
+		}
+	}
+
+	private void respawnEatenFood()
+	{
+		if (onFoodPlayers.isEmpty())
+		{
+			return;
+		}
+
+		if (isSameFoodSpawn)
+		{
+			respawnAllFood();
+		}
+		else
+		{
+			for (SnakePlayer snakePlayer : onFoodPlayers)
+			{
+				setFoodLocation(snakePlayer, getRandomPointInGrid(playerFoodRandoms[snakePlayer.getId()]));
+			}
+		}
+	}
+
+	private void updateAllSnakeTrails()
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (snakePlayer.isAlive())
+			{
+				snakePlayer.moveSnakeTrail();
+			}
+		}
+	}
+
+	/**
+	 * Checks every tile passed since the last tick, not only the destination, so running can not jump over trails.
+	 */
+	private boolean checkValidMovement(SnakePlayer snakePlayer)
+	{
+		if (!allowRun && snakePlayer.isRunning())
+		{
+			return false;
+		}
+
+		// any two tiles on the board are closer than its size
+		int steps = snakePlayer.getSweptSteps();
+		if (steps >= board.getGameSize())
+		{
+			return false;
+		}
+
+		for (int step = 1; step <= steps; step++)
+		{
+			int index = board.toIndex(snakePlayer.getSweptPoint(step));
+			if (index == SnakeBoard.OUTSIDE || board.isOccupied(index))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void setOverheadText(SnakePlayer snakePlayer, String text)
+	{
+		if (!isBot(snakePlayer))
+		{
+			overheadTextSink.setOverheadText(snakePlayer.getId(), text, snakePlayer.getColor());
+		}
+	}
+
+	private void setAllOverheadText(String text)
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			setOverheadText(snakePlayer, text);
+		}
+	}
+
+	private void respawnAllFood()
+	{
+		if (isSameFoodSpawn)
+		{
+			int foodLocation = getRandomPointInGrid(sharedFoodRandom);
+			for (SnakePlayer snakePlayer : snakePlayers)
+			{
+				setFoodLocation(snakePlayer, foodLocation);
+			}
+		}
+		else
+		{
+			for (SnakePlayer snakePlayer : snakePlayers)
+			{
+				setFoodLocation(snakePlayer, getRandomPointInGrid(playerFoodRandoms[snakePlayer.getId()]));
+			}
+		}
+	}
+
+	private void setFoodLocation(SnakePlayer snakePlayer, int foodLocation)
+	{
+		board.moveFood(snakePlayer.getFoodLocation(), foodLocation, snakePlayer.getId());
+		snakePlayer.setFoodLocation(foodLocation);
+	}
+
+	private int getRandomPointInGrid(SnakeRandom random)
+	{
+		SnakeFoodSpawnEvent foodSpawnEvent = new SnakeFoodSpawnEvent();
+		foodSpawnEvent.begin();
+		int index = board.getRandomFreeCell(random);
+		if (foodSpawnEvent.shouldCommit())
+		{
+			foodSpawnEvent.found = index != SnakeBoard.OUTSIDE;
+			foodSpawnEvent.freeCellCount = board.getFreeCellCount();
+			foodSpawnEvent.walkableCellCount = board.getWalkableCount();
+			foodSpawnEvent.reachableCellCount = board.getReachableCount();
+			foodSpawnEvent.fillRatio = 1 - (double) board.getFreeCellCount() / board.getReachableCount();
+			foodSpawnEvent.commit();
+		}
+		return index == SnakeBoard.OUTSIDE ? SnakePoint.NONE : board.toPoint(index);
+	}
+
+	private int getTotalTrailLength()
+	{
+		int totalTrailLength = 0;
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			totalTrailLength += snakePlayer.getSnakeTrail().size();
+		}
+		return totalTrailLength;
+	}
+
+	private boolean[][] getWalkableTiles(int wallStartPoint, int gameSize)
+	{
+		boolean[][] walkable = new boolean[gameSize][gameSize];
+
+		int gridStartX = SnakePoint.getX(wallStartPoint) + 1;
+		int gridStartY = SnakePoint.getY(wallStartPoint) - 1;
+		int plane = SnakePoint.getPlane(wallStartPoint);
+		for (int x = 0; x < gameSize; ++x)
+		{
+			for (int y = 0; y < gameSize; ++y)
+			{
+				walkable[x][y] = walkabilitySource.isWalkable(SnakePoint.pack(gridStartX + x, gridStartY - y, plane));
+			}
+		}
+		return walkable;
+	}
+}
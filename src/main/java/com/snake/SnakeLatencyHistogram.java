@@ -0,0 +1,86 @@
+package com.snake;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Fixed size log-linear histogram of nanosecond durations.
+ * Every power of two range is split into 16 buckets, so recorded values are kept within about 6% precision.
+ */
+public class SnakeLatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	@Getter
+	private long count;
+	@Getter
+	private long max;
+
+	public void record(long nanos)
+	{
+		long value = Math.max(nanos, 0);
+		counts[getBucket(value)]++;
+		count++;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the upper bound of the bucket holding the percentile, never more than the max
+	 */
+	public long getPercentile(double percentile)
+	{
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+		{
+			seen += counts[bucket];
+			if (seen >= target)
+			{
+				return bucket == BUCKET_COUNT - 1 ? max : Math.min(getBucketUpperBound(bucket), max);
+			}
+		}
+		return max;
+	}
+
+	public void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		max = 0;
+	}
+
+	private static int getBucket(long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		int subBucket = (int) (Math.min(value >>> (exponent - SUB_BUCKET_BITS), 2 * SUB_BUCKET_COUNT - 1)) & (SUB_BUCKET_COUNT - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long getBucketUpperBound(int bucket)
+	{
+		if (bucket < SUB_BUCKET_COUNT)
+		{
+			return bucket;
+		}
+
+		int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKET_COUNT;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + (subBucket + 1) * width - 1;
+	}
+}
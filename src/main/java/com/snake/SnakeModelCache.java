@@ -0,0 +1,90 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.JagexColor;
+import net.runelite.api.Model;
+import net.runelite.api.ModelData;
+
+/**
+ * Lit models shared by all objects with the same model id, color and vertical offset.
+ * Lighting is expensive, so every variant is only built once, until the cache is cleared on shutdown.
+ */
+@Singleton
+public class SnakeModelCache
+{
+	public static final int TRAIL_MODEL_ID = 29311;
+	public static final int FOOD_MODEL_ID = 2317;
+
+	private static final int FOOD_OFFSET_Y = 200;
+
+	private final Client client;
+
+	private final Map<Long, Model> models = new HashMap<>();
+
+	@Inject
+	public SnakeModelCache(Client client)
+	{
+		this.client = client;
+	}
+
+	public Model getModel(int modelId)
+	{
+		return getModel(modelId, 0, 0, () -> client.loadModel(modelId));
+	}
+
+	public Model getTrailModel(Color color)
+	{
+		return getModel(TRAIL_MODEL_ID, color.getRGB(), 0, () ->
+		{
+			ModelData trailModel = client.loadModelData(TRAIL_MODEL_ID).cloneColors();
+
+			trailModel.recolor(trailModel.getFaceColors()[0],
+				JagexColor.rgbToHSL(color.getRGB(), 0.01d));
+			trailModel.recolor(trailModel.getFaceColors()[1],
+				JagexColor.rgbToHSL(color.getRGB(), 1.0d));
+
+			return trailModel.light();
+		});
+	}
+
+	public Model getFoodModel(Color color)
+	{
+		return getModel(FOOD_MODEL_ID, color.getRGB(), FOOD_OFFSET_Y, () ->
+		{
+			ModelData foodModel = client.loadModelData(FOOD_MODEL_ID)
+				.cloneVertices()
+				.translate(0, FOOD_OFFSET_Y, 0)
+				.cloneColors();
+			foodModel.recolor(foodModel.getFaceColors()[0],
+				JagexColor.rgbToHSL(color.getRGB(), 1.0d));
+
+			return foodModel.light();
+		});
+	}
+
+	public void clear()
+	{
+		models.clear();
+	}
+
+	private Model getModel(int modelId, int rgb, int offsetY, Supplier<Model> modelSupplier)
+	{
+		long key = ((long) modelId << 40) | ((long) (offsetY & 0xFFFF) << 24) | (rgb & 0xFFFFFF);
+		Model model = models.get(key);
+		if (model == null)
+		{
+			model = modelSupplier.get();
+			if (model != null)
+			{
+				models.put(key, model);
+			}
+		}
+		return model;
+	}
+}
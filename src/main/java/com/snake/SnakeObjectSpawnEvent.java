@@ -0,0 +1,23 @@
+package com.snake;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.snake.ObjectSpawn")
+@Label("Snake Object Spawn")
+@Description("A RuneLite object created for the board, a trail or food")
+@Category({"RuneLite", "Snake"})
+@Enabled(false)
+class SnakeObjectSpawnEvent extends Event
+{
+	@Label("Kind")
+	String kind;
+
+	@Label("Model Id")
+	@Description("-1 for merged board chunks")
+	int modelId;
+}
@@ -0,0 +1,10 @@
+package com.snake;
+
+import java.awt.Color;
+
+public interface SnakeOverheadTextSink
+{
+	void setOverheadText(int playerId, String text, Color color);
+
+	void playDeathAnimation(int playerId);
+}
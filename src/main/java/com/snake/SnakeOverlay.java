@@ -1,9 +1,10 @@
 package com.snake;
 
-import static com.snake.SnakeController.READY_MESSAGE;
+import static com.snake.SnakeGame.READY_MESSAGE;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.util.List;
 import javax.inject.Inject;
 import static net.runelite.api.MenuAction.RUNELITE_OVERLAY;
 import static net.runelite.api.MenuAction.RUNELITE_OVERLAY_CONFIG;
@@ -15,36 +16,84 @@ import net.runelite.client.ui.overlay.components.TitleComponent;
 
 class SnakeOverlay extends OverlayPanel
 {
+	// above this many players only the leaders and the local player are listed
+	private static final int MAX_SCORE_LINES = 10;
+	private static final int LEADER_COUNT = 8;
 
 	private final SnakeController snakeController;
+	private final SnakeConfig config;
+	private final SnakeTickProfiler profiler;
+	private final SnakeReplayController replayController;
+
+	private int renderedStateVersion = -1;
+	private final int[] leaderIds = new int[LEADER_COUNT];
 
 	@Inject
-	SnakeOverlay(SnakePlugin plugin, SnakeController snakeController)
+	SnakeOverlay(SnakePlugin plugin, SnakeController snakeController, SnakeConfig config, SnakeTickProfiler profiler,
+		SnakeReplayController replayController)
 	{
 		super(plugin);
 		this.snakeController = snakeController;
+		this.config = config;
+		this.profiler = profiler;
+		this.replayController = replayController;
 
 		setPosition(OverlayPosition.TOP_LEFT);
+		setClearChildren(false);
 		addMenuEntry(RUNELITE_OVERLAY, "Start", "new game");
+		addMenuEntry(RUNELITE_OVERLAY, "Replay", "last game");
 		addMenuEntry(RUNELITE_OVERLAY_CONFIG, OPTION_CONFIGURE, "Snake");
 	}
 
 	@Override
 	public Dimension render(Graphics2D graphics)
 	{
-		SnakeController.State currentState = snakeController.getCurrentState();
+		// the panel content only changes with the game or replay state, so the components are kept between frames.
+		// both versions only increase, so their sum changes whenever either does
+		int stateVersion = snakeController.getStateVersion() + replayController.getVersion();
+		if (stateVersion != renderedStateVersion)
+		{
+			renderedStateVersion = stateVersion;
+			panelComponent.getChildren().clear();
+			buildOverlay();
+		}
+
+		return super.render(graphics);
+	}
+
+	/**
+	 * Rebuilds the panel on the next frame, for when a config it shows changed.
+	 */
+	void invalidate()
+	{
+		renderedStateVersion = -1;
+	}
+
+	private void buildOverlay()
+	{
+		if (replayController.isActive())
+		{
+			buildReplayOverlay();
+			return;
+		}
+
+		SnakeGame.State currentState = snakeController.getCurrentState();
 		String status = getStatusText(currentState);
 
 		panelComponent.getChildren().add(TitleComponent.builder()
 			.text("Snake - " + status)
 			.build());
 
-		if (currentState == SnakeController.State.WAITING_TO_START ||
-			currentState == SnakeController.State.READY ||
-			currentState == SnakeController.State.PLAYING ||
-			currentState == SnakeController.State.GAME_OVER)
+		if (currentState == SnakeGame.State.WAITING_TO_START ||
+			currentState == SnakeGame.State.READY ||
+			currentState == SnakeGame.State.PLAYING ||
+			currentState == SnakeGame.State.GAME_OVER)
 		{
-			buildScoreOverlay(currentState);
+			buildScoreOverlay(currentState, snakeController.getSnakePlayers());
+			if (config.showStateHash())
+			{
+				buildStateHashOverlay(snakeController.getPlayingTickCount(), snakeController.getStateHash());
+			}
 		}
 		else
 		{
@@ -53,52 +102,201 @@ class SnakeOverlay extends OverlayPanel
 				.build());
 		}
 
-		return super.render(graphics);
+		if (config.showTickTimings() && profiler.isEnabled())
+		{
+			buildTimingOverlay();
+		}
 	}
 
-	private void buildScoreOverlay(SnakeController.State currentState)
+	private void buildTimingOverlay()
+	{
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Timings (us)")
+			.right("p50 / p99 / max")
+			.build());
+
+		for (SnakeTickProfiler.Phase phase : SnakeTickProfiler.Phase.values())
+		{
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(phase.getDisplayName())
+				.right(profiler.getSummary(phase))
+				.build());
+		}
+	}
+
+	private void buildReplayOverlay()
+	{
+		SnakeReplayPlayback playback = replayController.getPlayback();
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Snake - " + (replayController.isPaused() ? "Replay paused" : "Replay"))
+			.build());
+
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Tick")
+			.right(playback.getTick() + " / " + playback.getTickCount())
+			.build());
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Speed")
+			.right(replayController.getSpeed() + "x")
+			.build());
+
+		buildScoreOverlay(playback.getCurrentState(), playback.getSnakePlayers());
+		if (config.showStateHash())
+		{
+			buildStateHashOverlay(playback.getPlayingTickCount(), playback.getStateHash());
+		}
+	}
+
+	private void buildStateHashOverlay(int playingTickCount, long stateHash)
+	{
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Sync " + playingTickCount)
+			.right(SnakeStateHash.getDigest(stateHash))
+			.build());
+	}
+
+	private void buildScoreOverlay(SnakeGame.State currentState, List<SnakePlayer> snakePlayers)
 	{
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("Score")
 			.build());
 
-		for (SnakePlayer snakePlayer : snakeController.getSnakePlayers())
+		if (snakePlayers.size() > MAX_SCORE_LINES)
 		{
-			String rightText = (currentState == SnakeController.State.GAME_OVER ? "Win: " : "") + snakePlayer.getScore();
-			if (currentState == SnakeController.State.WAITING_TO_START)
+			buildCompactScoreOverlay(currentState, snakePlayers);
+		}
+		else
+		{
+			for (SnakePlayer snakePlayer : snakePlayers)
 			{
-				rightText = snakePlayer.isReady() ? "R" : "-";
+				buildPlayerScoreLine(currentState, snakePlayer, "");
 			}
-			else if (!snakePlayer.isAlive())
+		}
+
+		if (currentState == SnakeGame.State.READY && !replayController.isActive())
+		{
+			int tickCountDown = snakeController.getReadyTickCountdown();
+			String countdownText = tickCountDown == 0 ? "Go!" : "Starting in " + snakeController.getReadyTickCountdown();
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(snakeController.isBoardBuilt() ? countdownText : "Building board...")
+				.build());
+		}
+	}
+
+	/**
+	 * Lists the leaders by score, then the local player if they are not one of them, and a summary of everyone else.
+	 * While waiting only the ready count is shown.
+	 */
+	private void buildCompactScoreOverlay(SnakeGame.State currentState, List<SnakePlayer> snakePlayers)
+	{
+		int readyCount = 0;
+		int aliveCount = 0;
+		int leaderCount = 0;
+		SnakePlayer activePlayer = null;
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			readyCount += snakePlayer.isReady() ? 1 : 0;
+			aliveCount += snakePlayer.isAlive() ? 1 : 0;
+			if (snakePlayer.isActivePlayer())
 			{
-				rightText = "Dead: " + snakePlayer.getScore();
+				activePlayer = snakePlayer;
 			}
+			leaderCount = insertLeader(snakePlayers, snakePlayer, leaderCount);
+		}
 
+		if (currentState == SnakeGame.State.WAITING_TO_START)
+		{
 			panelComponent.getChildren().add(LineComponent.builder()
-				.left(snakePlayer.getPlayerName())
-				.leftColor(snakePlayer.isAlive() ? snakePlayer.getColor() : Color.DARK_GRAY)
-				.right(rightText)
+				.left("Ready")
+				.right(readyCount + " / " + snakePlayers.size())
 				.build());
-
-			if (!snakePlayer.isReady() && snakePlayer.isActivePlayer())
+			if (activePlayer != null)
 			{
-				panelComponent.getChildren().add(LineComponent.builder()
-					.left("Type " + READY_MESSAGE + " in chat to ready!")
-					.leftColor(Color.RED)
-					.build());
+				buildPlayerScoreLine(currentState, activePlayer, "");
 			}
+			return;
 		}
 
-		if (currentState == SnakeController.State.READY)
+		boolean isActivePlayerListed = false;
+		for (int rank = 0; rank < leaderCount; rank++)
+		{
+			SnakePlayer snakePlayer = snakePlayers.get(leaderIds[rank]);
+			isActivePlayerListed |= snakePlayer == activePlayer;
+			buildPlayerScoreLine(currentState, snakePlayer, (rank + 1) + ". ");
+		}
+
+		if (activePlayer != null && !isActivePlayerListed)
+		{
+			buildPlayerScoreLine(currentState, activePlayer, getRank(snakePlayers, activePlayer) + ". ");
+		}
+
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left((snakePlayers.size() - leaderCount) + " more")
+			.right(aliveCount + " alive")
+			.build());
+	}
+
+	/**
+	 * Keeps the leader ids sorted by score with an insertion into the fixed size array, so nothing is sorted or allocated.
+	 *
+	 * @return the new number of leaders
+	 */
+	private int insertLeader(List<SnakePlayer> snakePlayers, SnakePlayer snakePlayer, int leaderCount)
+	{
+		int position = leaderCount;
+		while (position > 0 && snakePlayers.get(leaderIds[position - 1]).getScore() < snakePlayer.getScore())
+		{
+			position--;
+		}
+		if (position == LEADER_COUNT)
+		{
+			return leaderCount;
+		}
+
+		int newLeaderCount = Math.min(leaderCount + 1, LEADER_COUNT);
+		System.arraycopy(leaderIds, position, leaderIds, position + 1, newLeaderCount - position - 1);
+		leaderIds[position] = snakePlayer.getId();
+		return newLeaderCount;
+	}
+
+	private static int getRank(List<SnakePlayer> snakePlayers, SnakePlayer snakePlayer)
+	{
+		int rank = 1;
+		for (SnakePlayer other : snakePlayers)
+		{
+			rank += other.getScore() > snakePlayer.getScore() ? 1 : 0;
+		}
+		return rank;
+	}
+
+	private void buildPlayerScoreLine(SnakeGame.State currentState, SnakePlayer snakePlayer, String prefix)
+	{
+		String rightText = (currentState == SnakeGame.State.GAME_OVER ? "Win: " : "") + snakePlayer.getScore();
+		if (currentState == SnakeGame.State.WAITING_TO_START)
+		{
+			rightText = snakePlayer.isReady() ? "R" : "-";
+		}
+		else if (!snakePlayer.isAlive())
+		{
+			rightText = "Dead: " + snakePlayer.getScore();
+		}
+
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left(prefix + snakePlayer.getPlayerName())
+			.leftColor(snakePlayer.isAlive() ? snakePlayer.getColor() : Color.DARK_GRAY)
+			.right(rightText)
+			.build());
+
+		if (!snakePlayer.isReady() && snakePlayer.isActivePlayer())
 		{
-			int tickCountDown = snakeController.getReadyTickCountdown();
 			panelComponent.getChildren().add(LineComponent.builder()
-				.left(tickCountDown == 0 ? "Go!" : "Starting in " + snakeController.getReadyTickCountdown())
+				.left("Type " + READY_MESSAGE + " in chat to ready!")
+				.leftColor(Color.RED)
 				.build());
 		}
 	}
 
-	private String getStatusText(SnakeController.State state)
+	private String getStatusText(SnakeGame.State state)
 	{
 		switch (state)
 		{
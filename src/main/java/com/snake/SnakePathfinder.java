@@ -0,0 +1,173 @@
+package com.snake;
+
+/**
+ * Breadth first search over the board for bots, moving in the 8 directions players can walk.
+ * Like for players, a diagonal step is blocked when a tile next to it is not walkable.
+ * All buffers are allocated once per board and reused: cells are marked visited with a stamp
+ * that increases every search, so nothing has to be cleared between searches.
+ * Tiles players already moved to this tick can be reserved, so bots do not follow each other onto the same tile.
+ */
+public class SnakePathfinder
+{
+	// orthogonal directions first, so paths prefer straight lines
+	private static final int[] DIRECTION_X = {0, 1, 0, -1, 1, 1, -1, -1};
+	private static final int[] DIRECTION_Y = {-1, 0, 1, 0, -1, 1, 1, -1};
+
+	private final SnakeBoard board;
+	private final int gameSize;
+
+	private final int[] queue;
+	private final int[] parents;
+	private final int[] visitedStamps;
+	private int stamp;
+	private final int[] reservedStamps;
+	private int reservationStamp = 1;
+
+	public SnakePathfinder(SnakeBoard board)
+	{
+		this.board = board;
+		this.gameSize = board.getGameSize();
+
+		int cellCount = gameSize * gameSize;
+		queue = new int[cellCount];
+		parents = new int[cellCount];
+		visitedStamps = new int[cellCount];
+		reservedStamps = new int[cellCount];
+	}
+
+	public void clearReservations()
+	{
+		reservationStamp++;
+	}
+
+	public void reserve(int index)
+	{
+		reservedStamps[index] = reservationStamp;
+	}
+
+	/**
+	 * @param from the board index of the snake head
+	 * @param target the board index to reach, or {@link SnakeBoard#OUTSIDE} for none
+	 * @param preference rotates the order directions are tried in, so snakes on the same tile take different paths
+	 * @return the first step of a shortest path to the target, the most open free neighbour if the target
+	 * cannot be reached, or {@link SnakeBoard#OUTSIDE} if there is no free neighbour
+	 */
+	public int findNextStep(int from, int target, int preference)
+	{
+		if (target != SnakeBoard.OUTSIDE && target != from && board.isConnected(from, target))
+		{
+			int reached = search(from, target, preference);
+			if (reached != SnakeBoard.OUTSIDE)
+			{
+				int step = reached;
+				while (parents[step] != from)
+				{
+					step = parents[step];
+				}
+				return step;
+			}
+		}
+		return findOpenNeighbour(from, preference);
+	}
+
+	/**
+	 * @return the target if it was reached, otherwise {@link SnakeBoard#OUTSIDE}
+	 */
+	private int search(int from, int target, int preference)
+	{
+		stamp++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = from;
+		visitedStamps[from] = stamp;
+
+		while (head < tail)
+		{
+			int index = queue[head++];
+			int x = index / gameSize;
+			int y = index % gameSize;
+			for (int i = 0; i < DIRECTION_X.length; i++)
+			{
+				int direction = getDirection(i, preference);
+				int neighbour = getFreeNeighbour(x, y, direction);
+				if (neighbour == SnakeBoard.OUTSIDE || visitedStamps[neighbour] == stamp)
+				{
+					continue;
+				}
+
+				visitedStamps[neighbour] = stamp;
+				parents[neighbour] = index;
+				if (neighbour == target)
+				{
+					return target;
+				}
+				queue[tail++] = neighbour;
+			}
+		}
+		return SnakeBoard.OUTSIDE;
+	}
+
+	private int findOpenNeighbour(int from, int preference)
+	{
+		int x = from / gameSize;
+		int y = from % gameSize;
+		int bestNeighbour = SnakeBoard.OUTSIDE;
+		int bestFreeCount = -1;
+		for (int i = 0; i < DIRECTION_X.length; i++)
+		{
+			int direction = getDirection(i, preference);
+			int neighbourX = x + DIRECTION_X[direction];
+			int neighbourY = y + DIRECTION_Y[direction];
+			int neighbour = getFreeNeighbour(x, y, direction);
+			if (neighbour == SnakeBoard.OUTSIDE)
+			{
+				continue;
+			}
+
+			int freeCount = 0;
+			for (int next = 0; next < DIRECTION_X.length; next++)
+			{
+				if (getFreeNeighbour(neighbourX, neighbourY, next) != SnakeBoard.OUTSIDE)
+				{
+					freeCount++;
+				}
+			}
+			if (freeCount > bestFreeCount)
+			{
+				bestNeighbour = neighbour;
+				bestFreeCount = freeCount;
+			}
+		}
+		return bestNeighbour;
+	}
+
+	/**
+	 * Rotates the orthogonal and the diagonal directions separately, so orthogonal steps are still tried first.
+	 */
+	private static int getDirection(int i, int preference)
+	{
+		return (i & 4) | ((i + preference) & 3);
+	}
+
+	/**
+	 * @return the neighbour in the direction if players can step onto it, otherwise {@link SnakeBoard#OUTSIDE}
+	 */
+	private int getFreeNeighbour(int x, int y, int direction)
+	{
+		int neighbourX = x + DIRECTION_X[direction];
+		int neighbourY = y + DIRECTION_Y[direction];
+		if (neighbourX < 0 || neighbourX >= gameSize || neighbourY < 0 || neighbourY >= gameSize)
+		{
+			return SnakeBoard.OUTSIDE;
+		}
+
+		int index = neighbourX * gameSize + neighbourY;
+		if (!board.isWalkable(index) || board.isOccupied(index) || reservedStamps[index] == reservationStamp)
+		{
+			return SnakeBoard.OUTSIDE;
+		}
+
+		boolean isDiagonal = neighbourX != x && neighbourY != y;
+		return !isDiagonal || board.isDiagonalOpen(x, y, neighbourX, neighbourY) ? index : SnakeBoard.OUTSIDE;
+	}
+}
@@ -1,21 +1,19 @@
 package com.snake;
 
 import java.awt.Color;
-import java.util.ArrayDeque;
-import java.util.Queue;
 import lombok.Getter;
 import lombok.Setter;
-import net.runelite.api.Player;
-import net.runelite.api.coords.WorldPoint;
-import net.runelite.client.util.ColorUtil;
 
 public class SnakePlayer
 {
 	private static final int INITIAL_TRAIL_SIZE = 2;
 
 	@Getter
-	private WorldPoint currentLocation;
-	private WorldPoint previousLocation;
+	private final int id;
+
+	@Getter
+	private int currentLocation;
+	private int previousLocation;
 
 	@Getter
 	private boolean isAlive;
@@ -23,7 +21,7 @@ public class SnakePlayer
 	@Setter
 	private boolean isReady;
 
-	private final Player player;
+	private final SnakeBoard board;
 	@Getter
 	private final String playerName;
 	@Getter
@@ -35,92 +33,138 @@ public class SnakePlayer
 	private boolean shouldGrow;
 
 	@Getter
-	private final Queue<WorldPoint> snakeTrail = new ArrayDeque<>();
+	private final SnakeTrail snakeTrail = new SnakeTrail();
 	@Getter
 	@Setter
-	private WorldPoint foodLocation;
+	private int foodLocation;
 
 	@Getter
 	@Setter
 	private int score;
 
-	public SnakePlayer(Player player, Color color, boolean isActivePlayer)
+	public SnakePlayer(int id, String playerName, int location, SnakeBoard board, Color color, boolean isActivePlayer)
 	{
-		this.player = player;
+		this.id = id;
+		this.playerName = playerName;
+		this.board = board;
 		this.color = color;
 		this.isActivePlayer = isActivePlayer;
 		this.score = INITIAL_TRAIL_SIZE;
 
-		currentLocation = player.getWorldLocation();
+		currentLocation = location;
 		previousLocation = currentLocation;
 		isAlive = true;
-		playerName = player.getName();
+		board.setPlayerAlive(id, true);
 		isReady = false;
 
 		shouldGrow = false;
 
-		snakeTrail.add(currentLocation);
-		foodLocation = null;
-	}
-
-    public void setOverHeadText(String text)
-	{
-		setOverHeadText(text, 50);
-	}
-
-	public void setOverHeadText(String text, int duration)
-	{
-		player.setOverheadCycle(duration);
-		player.setOverheadText(ColorUtil.wrapWithColorTag(text, color));
+		addTrailPoint(currentLocation);
+		foodLocation = SnakePoint.NONE;
 	}
 
 	public void fillInitialSnakeTrail()
 	{
 		for (int i = 0; i < INITIAL_TRAIL_SIZE - 1; i++)
 		{
-			snakeTrail.add(player.getWorldLocation());
+			addTrailPoint(currentLocation);
 		}
 	}
 
 	public void increaseScore()
 	{
 		score++;
+		board.getEventLog().publish(SnakeEventLog.GREW, id, score);
 	}
 
-	public void updateLocation()
+	public void updateLocation(int location)
 	{
 		previousLocation = currentLocation;
-		currentLocation = player.getWorldLocation();
+		currentLocation = location;
 	}
 
+	/**
+	 * Moves the head along every tile passed since the last tick, so running or a skipped tick leaves no gaps.
+	 * Tiles that would leave the trail again right away are skipped, and the tail is removed before the head is
+	 * added, so the trail never grows past its length.
+	 */
 	public void moveSnakeTrail()
 	{
-		if (shouldGrow)
+		int targetSize = snakeTrail.size() + (shouldGrow ? 1 : 0);
+		shouldGrow = false;
+
+		int steps = getSweptSteps();
+		int addCount = Math.min(steps, targetSize);
+		for (int i = snakeTrail.size() + addCount - targetSize; i > 0; i--)
 		{
-			snakeTrail.add(currentLocation);
-			shouldGrow = false;
+			board.removeSegment(snakeTrail.poll(), id);
 		}
-		else
+		for (int step = steps - addCount + 1; step <= steps; step++)
 		{
-			snakeTrail.poll();
-			snakeTrail.add(currentLocation);
+			addTrailPoint(getSweptPoint(step));
 		}
 	}
 
+	/**
+	 * @return the number of tiles moved since the last tick, at least 1 so standing still repeats the head
+	 * and a plane change is a single step
+	 */
+	public int getSweptSteps()
+	{
+		int distance = SnakePoint.distance(previousLocation, currentLocation);
+		return distance == 0 || distance == Integer.MAX_VALUE ? 1 : distance;
+	}
+
+	/**
+	 * @param step between 1 and {@link #getSweptSteps()}, where the last step is the current location
+	 */
+	public int getSweptPoint(int step)
+	{
+		return SnakePoint.interpolate(previousLocation, currentLocation, step, getSweptSteps());
+	}
+
 	public void setAlive(boolean isAlive)
 	{
+		if (this.isAlive != isAlive)
+		{
+			board.setPlayerAlive(id, isAlive);
+		}
 		this.isAlive = isAlive;
 		if (!isAlive)
 		{
-			setOverHeadText("Game Over!");
-			player.setAnimation(2925);
-			player.setAnimationFrame(0);
-			snakeTrail.clear();
+			clearTrail();
+		}
+	}
+
+	/**
+	 * Replaces the whole trail, from tail to head.
+	 */
+	public void restoreTrail(int[] points)
+	{
+		clearTrail();
+		for (int point : points)
+		{
+			addTrailPoint(point);
+		}
+	}
+
+	private void addTrailPoint(int point)
+	{
+		snakeTrail.add(point);
+		board.addSegment(point, id);
+	}
+
+	private void clearTrail()
+	{
+		for (int i = 0; i < snakeTrail.size(); i++)
+		{
+			board.removeSegment(snakeTrail.get(i), id);
 		}
+		snakeTrail.clear();
 	}
 
 	public boolean isRunning()
 	{
-		return previousLocation.distanceTo(currentLocation) > 1;
+		return SnakePoint.distance(previousLocation, currentLocation) > 1;
 	}
 }
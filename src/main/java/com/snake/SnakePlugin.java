@@ -2,8 +2,21 @@ package com.snake;
 
 import com.google.inject.Provides;
 import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import lombok.extern.slf4j.Slf4j;
@@ -11,10 +24,14 @@ import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.MenuAction;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
 import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
@@ -62,7 +79,35 @@ public class SnakePlugin extends Plugin
 	@Inject
 	private SnakeView snakeView;
 
+	@Inject
+	private SnakeModelCache modelCache;
+
+	@Inject
+	private SnakeTickProfiler profiler;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private SnakeReplayController replayController;
+
+	@Inject
+	private SnakeSceneMapper sceneMapper;
+
 	private static final String ADD_PLAYER_MENU = ColorUtil.wrapWithColorTag("Add snake player", Color.GREEN);
+	private static final File TIMINGS_DIR = new File(RuneLite.RUNELITE_DIR, "snake");
+	private static final DateTimeFormatter TIMINGS_FILE_FORMAT = DateTimeFormatter.ofPattern("'timings-'yyyy-MM-dd_HH-mm-ss'.csv'");
+	private static final String REPLAY_COMMAND = "snakereplay";
+	private static final String REPLAY_USAGE = "Usage: ::" + REPLAY_COMMAND + " play [file] | pause | speed <1-"
+		+ SnakeReplayController.MAX_SPEED + "> | seek <tick> | stop";
+
+	// read when they are used, or only change how the current game is drawn
+	private static final Set<String> COSMETIC_CONFIG_KEYS = Set.of("gridTheme", "mergeBoardModels", "boardBuildBudget",
+		"showAllFood", "showStateHash", "recordReplays", "showTickTimings", "dumpTickTimings");
+	private static final Set<String> BOARD_CONFIG_KEYS = Set.of("gameSize");
+
+	private SnakeGame.State previousState = SnakeGame.State.IDLE;
+	private SnakeBoardBuildEvent boardBuildEvent;
 
 	@Override
 	protected void startUp()
@@ -82,6 +127,7 @@ public class SnakePlugin extends Plugin
 		clientThread.invokeLater(() ->
 		{
 			resetGame();
+			modelCache.clear();
 			return true;
 		});
 
@@ -94,8 +140,40 @@ public class SnakePlugin extends Plugin
 	@Subscribe
 	public void onGameTick(GameTick tick)
 	{
-		snakeController.tick();
+		if (replayController.isActive())
+		{
+			replayController.tick();
+		}
+		else
+		{
+			snakeController.tick();
+		}
+
+		long start = profiler.start();
 		snakeView.update();
+		profiler.stop(SnakeTickProfiler.Phase.VIEW_UPDATE, start);
+
+		SnakeGame.State currentState = snakeController.getCurrentState();
+		if (currentState == SnakeGame.State.GAME_OVER && previousState != SnakeGame.State.GAME_OVER && config.dumpTickTimings())
+		{
+			dumpTickTimings(profiler.getReport());
+		}
+		previousState = currentState;
+	}
+
+	@Subscribe
+	public void onClientTick(ClientTick tick)
+	{
+		if (!snakeView.isBoardBuilt())
+		{
+			snakeView.buildBoard(config.boardBuildBudget());
+			snakeController.setBoardBuilt(snakeView.isBoardBuilt());
+			if (boardBuildEvent != null)
+			{
+				boardBuildEvent.frameCount++;
+			}
+			commitBoardBuildEvent();
+		}
 	}
 
 	@Subscribe
@@ -109,10 +187,13 @@ public class SnakePlugin extends Plugin
 		}
 	}
 
+	/**
+	 * Ends the game when leaving the world. Loading a new region keeps it, the view places the board again in the new scene.
+	 */
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged gameStateChanged)
 	{
-		if (gameStateChanged.getGameState() == GameState.LOGGED_IN)
+		if (gameStateChanged.getGameState() == GameState.LOGIN_SCREEN || gameStateChanged.getGameState() == GameState.HOPPING)
 		{
 			resetGame();
 		}
@@ -121,7 +202,8 @@ public class SnakePlugin extends Plugin
 	@Subscribe
 	public void onChatMessage(ChatMessage event)
 	{
-		if (event.getType() == ChatMessageType.PUBLICCHAT)
+		// only ready messages are handled, so chat in a crowded world costs nothing outside the waiting phase
+		if (event.getType() == ChatMessageType.PUBLICCHAT && snakeController.getCurrentState() == SnakeGame.State.WAITING_TO_START)
 		{
 			String playerName = Text.sanitize(Text.removeTags(event.getName()));
 			String message = Text.sanitize(Text.removeTags(event.getMessage())).toLowerCase();
@@ -129,22 +211,204 @@ public class SnakePlugin extends Plugin
 		}
 	}
 
-	private void initializeGame()
+	@Subscribe
+	public void onCommandExecuted(CommandExecuted commandExecuted)
 	{
+		if (!commandExecuted.getCommand().equalsIgnoreCase(REPLAY_COMMAND))
+		{
+			return;
+		}
+
+		String[] arguments = commandExecuted.getArguments();
+		String action = arguments.length > 0 ? arguments[0].toLowerCase() : "";
+		try
+		{
+			switch (action)
+			{
+				case "play":
+					loadReplay(arguments.length > 1 ? arguments[1] : null);
+					break;
+				case "pause":
+					replayController.setPaused(!replayController.isPaused());
+					break;
+				case "speed":
+					replayController.setSpeed(Integer.parseInt(arguments[1]));
+					break;
+				case "seek":
+					replayController.seek(Integer.parseInt(arguments[1]));
+					break;
+				case "stop":
+					resetGame();
+					break;
+				default:
+					sendChatMessage(REPLAY_USAGE);
+			}
+		}
+		catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+		{
+			sendChatMessage(REPLAY_USAGE);
+		}
+	}
+
+	/**
+	 * Reads the replay and builds its playback on the executor, and starts it on the client thread.
+	 *
+	 * @param fileName a file in the replay directory, or null for the latest replay
+	 */
+	private void loadReplay(String fileName)
+	{
+		executor.execute(() ->
+		{
+			File file = fileName != null ? new File(SnakeReplayWriter.REPLAY_DIR, fileName) : getLatestReplay();
+			if (file == null || !file.isFile())
+			{
+				clientThread.invokeLater(() -> sendChatMessage("No snake replay found."));
+				return;
+			}
+
+			try (InputStream in = new BufferedInputStream(new FileInputStream(file)))
+			{
+				SnakeReplay replay = SnakeReplay.read(in);
+				clientThread.invokeLater(() -> buildPlayback(replay));
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to read replay {}", file, e);
+				clientThread.invokeLater(() -> sendChatMessage("Unable to read snake replay " + file.getName() + "."));
+			}
+		});
+	}
+
+	private static File getLatestReplay()
+	{
+		File[] files = SnakeReplayWriter.REPLAY_DIR.listFiles((dir, name) -> name.endsWith(SnakeReplayRecorder.FILE_EXTENSION));
+		if (files == null || files.length == 0)
+		{
+			return null;
+		}
+		return Collections.max(Arrays.asList(files), Comparator.comparingLong(File::lastModified));
+	}
+
+	/**
+	 * Places the replay at the local player, then applies all its ticks on the executor, since that plays the whole game.
+	 */
+	private void buildPlayback(SnakeReplay replay)
+	{
+		WorldPoint wallStartPoint = SnakeUtils.getWallStartPoint(client.getLocalPlayer().getWorldLocation(), replay.getGameSize());
+		executor.execute(() ->
+		{
+			SnakeReplayPlayback playback = new SnakeReplayPlayback(replay, SnakeUtils.packWorldPoint(wallStartPoint));
+			clientThread.invokeLater(() -> startReplay(playback, wallStartPoint));
+		});
+	}
+
+	private void startReplay(SnakeReplayPlayback playback, WorldPoint wallStartPoint)
+	{
+		SnakeReplay replay = playback.getReplay();
+		// the view builds the board around the local player, so a player that moved meanwhile needs a new playback
+		if (!wallStartPoint.equals(SnakeUtils.getWallStartPoint(client.getLocalPlayer().getWorldLocation(), replay.getGameSize())))
+		{
+			buildPlayback(replay);
+			return;
+		}
+
 		resetGame();
 
+		sceneMapper.setArea(wallStartPoint, replay.getGameSize());
+		replayController.start(playback);
+
+		snakeView.initialize(playback.getSnakePlayers(), playback.getEventLog(), replay.getGameSize(), config.gridTheme(),
+			replay.getWalkableTiles(), replay.isSameFoodSpawn(), config.showAllFood(), config.mergeBoardModels());
+		snakeView.update();
+	}
+
+	private void sendChatMessage(String message)
+	{
+		client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
+	}
+
+	private void initializeGame()
+	{
 		List<String> playerNames = config.enableMultiplayer() ?
 			Text.fromCSV(config.playerNames()) : Collections.singletonList(client.getLocalPlayer().getName());
-		snakeController.initialize(playerNames, getGameSize(), config.allowRun(), config.enableMultiplayer(), config.isSameFoodSpawn(), config.seed());
-		snakeView.initialize(snakeController.getSnakePlayers(), getGameSize(), config.gridTheme(), snakeController.getWalkableTiles(), config.isSameFoodSpawn(), config.showAllFood());
+		if (!replayController.isActive() && snakeController.canRematch(getGameSize())
+			&& snakeView.canRematch(getGameSize(), config.gridTheme(), config.mergeBoardModels()))
+		{
+			rematchGame(playerNames);
+			return;
+		}
+
+		resetGame();
+		resetProfiler();
+		boardBuildEvent = new SnakeBoardBuildEvent();
+		boardBuildEvent.begin();
+
+		snakeController.initialize(playerNames, getGameSize(), config.allowRun(), config.enableMultiplayer(), config.isSameFoodSpawn(), config.seed(),
+			config.botCount(), config.recordReplays());
+		snakeView.initialize(snakeController.getSnakePlayers(), snakeController.getEventLog(), getGameSize(), config.gridTheme(),
+			snakeController.getWalkableTiles(), config.isSameFoodSpawn(), config.showAllFood(), config.mergeBoardModels());
+		snakeController.setBoardBuilt(snakeView.isBoardBuilt());
+
+		boardBuildEvent.gameSize = getGameSize();
+		boardBuildEvent.playerCount = snakeController.getSnakePlayers().size();
+		boardBuildEvent.mergeBoardModels = config.mergeBoardModels();
+		commitBoardBuildEvent();
+	}
+
+	/**
+	 * Starts a new game on the board already shown, which only resets the snakes and food.
+	 */
+	private void rematchGame(List<String> playerNames)
+	{
+		previousState = SnakeGame.State.IDLE;
+		resetProfiler();
+
+		snakeController.rematch(playerNames, getGameSize(), config.allowRun(), config.enableMultiplayer(), config.isSameFoodSpawn(), config.seed(),
+			config.botCount(), config.recordReplays());
+		snakeView.rematch(snakeController.getSnakePlayers(), snakeController.getEventLog(), config.isSameFoodSpawn(), config.showAllFood());
+		snakeController.setBoardBuilt(snakeView.isBoardBuilt());
+	}
+
+	private void resetProfiler()
+	{
+		profiler.reset();
+		profiler.setEnabled(config.showTickTimings() || config.dumpTickTimings());
+	}
+
+	private void commitBoardBuildEvent()
+	{
+		if (boardBuildEvent != null && snakeView.isBoardBuilt())
+		{
+			boardBuildEvent.commit();
+			boardBuildEvent = null;
+		}
 	}
 
 	private void resetGame()
 	{
+		replayController.stop();
 		snakeController.reset();
 		snakeView.reset();
+		previousState = SnakeGame.State.IDLE;
+		boardBuildEvent = null;
 	}
 
+	private void dumpTickTimings(String report)
+	{
+		File file = new File(TIMINGS_DIR, LocalDateTime.now().format(TIMINGS_FILE_FORMAT));
+		executor.execute(() ->
+		{
+			try
+			{
+				Files.createDirectories(TIMINGS_DIR.toPath());
+				Files.write(file.toPath(), report.getBytes(StandardCharsets.UTF_8));
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to write tick timings to {}", file, e);
+			}
+		});
+	}
 
 	private int getGameSize()
 	{
@@ -155,25 +419,32 @@ public class SnakePlugin extends Plugin
 	public void onOverlayMenuClicked(OverlayMenuClicked overlayMenuClicked)
 	{
 		OverlayMenuEntry overlayMenuEntry = overlayMenuClicked.getEntry();
-		if (overlayMenuEntry.getMenuAction() == MenuAction.RUNELITE_OVERLAY
-			&& overlayMenuClicked.getEntry().getOption().equals("Start")
-			&& overlayMenuClicked.getOverlay() == overlay)
+		if (overlayMenuEntry.getMenuAction() != MenuAction.RUNELITE_OVERLAY || overlayMenuClicked.getOverlay() != overlay)
+		{
+			return;
+		}
+
+		if (overlayMenuEntry.getOption().equals("Start"))
 		{
 			initializeGame();
 		}
+		else if (overlayMenuEntry.getOption().equals("Replay"))
+		{
+			loadReplay(null);
+		}
 	}
 
 	@Subscribe
 	public void onConfigChanged(ConfigChanged configChanged)
 	{
-		if (configChanged.getGroup().equals(SnakeConfig.GROUP))
+		if (!configChanged.getGroup().equals(SnakeConfig.GROUP))
 		{
-			clientThread.invokeLater(() ->
-			{
-				resetGame();
-				return true;
-			});
+			return;
+		}
 
+		String key = configChanged.getKey();
+		if (key.equals("addPlayerMenuEntry"))
+		{
 			if (client != null)
 			{
 				menuManager.get().removePlayerMenuItem(ADD_PLAYER_MENU);
@@ -183,6 +454,39 @@ public class SnakePlugin extends Plugin
 					menuManager.get().addPlayerMenuItem(ADD_PLAYER_MENU);
 				}
 			}
+			return;
+		}
+
+		clientThread.invokeLater(() ->
+		{
+			applyConfigChange(key);
+			return true;
+		});
+	}
+
+	/**
+	 * Cosmetic changes are applied to the running game, rule changes end the game but keep the board for a rematch,
+	 * and board changes tear everything down.
+	 */
+	private void applyConfigChange(String key)
+	{
+		if (COSMETIC_CONFIG_KEYS.contains(key))
+		{
+			snakeView.setBoardStyle(config.gridTheme(), config.mergeBoardModels());
+			snakeView.setShowAllFood(config.showAllFood());
+			snakeController.setBoardBuilt(snakeView.isBoardBuilt());
+			profiler.setEnabled(config.showTickTimings() || config.dumpTickTimings());
+			overlay.invalidate();
+		}
+		else if (BOARD_CONFIG_KEYS.contains(key))
+		{
+			resetGame();
+		}
+		else if (!replayController.isActive())
+		{
+			snakeController.stop();
+			snakeView.stopGame();
+			previousState = SnakeGame.State.IDLE;
 		}
 	}
 
@@ -0,0 +1,57 @@
+package com.snake;
+
+/**
+ * World tile coordinates packed into a single int, so trails and locations can be stored without boxing.
+ * Layout is 2 bits plane, 15 bits x and 15 bits y.
+ */
+public class SnakePoint
+{
+	public static final int NONE = -1;
+
+	private static final int COORD_BITS = 15;
+	private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+	private static final int PLANE_SHIFT = COORD_BITS * 2;
+
+	public static int pack(int x, int y, int plane)
+	{
+		return plane << PLANE_SHIFT | (x & COORD_MASK) << COORD_BITS | (y & COORD_MASK);
+	}
+
+	public static int getX(int point)
+	{
+		return (point >>> COORD_BITS) & COORD_MASK;
+	}
+
+	public static int getY(int point)
+	{
+		return point & COORD_MASK;
+	}
+
+	public static int getPlane(int point)
+	{
+		return point >>> PLANE_SHIFT;
+	}
+
+	/**
+	 * Rasterizes the straight line between two points into tiles that each touch the previous one, one tile per
+	 * step, without allocating.
+	 *
+	 * @param step between 1 and steps, where step == steps is the destination
+	 * @param steps the distance between the points
+	 */
+	public static int interpolate(int from, int to, int step, int steps)
+	{
+		int x = getX(from) + Math.floorDiv(2 * step * (getX(to) - getX(from)) + steps, 2 * steps);
+		int y = getY(from) + Math.floorDiv(2 * step * (getY(to) - getY(from)) + steps, 2 * steps);
+		return pack(x, y, getPlane(to));
+	}
+
+	public static int distance(int from, int to)
+	{
+		if (getPlane(from) != getPlane(to))
+		{
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(Math.abs(getX(from) - getX(to)), Math.abs(getY(from) - getY(to)));
+	}
+}
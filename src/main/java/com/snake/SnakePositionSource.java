@@ -0,0 +1,9 @@
+package com.snake;
+
+public interface SnakePositionSource
+{
+	/**
+	 * @return the current packed location of the given snake player, see {@link SnakePoint}
+	 */
+	int getLocation(int playerId);
+}
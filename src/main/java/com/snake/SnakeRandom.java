@@ -0,0 +1,69 @@
+package com.snake;
+
+/**
+ * Small splitmix64 generator. Unlike {@link java.util.Random} it is not synchronized and draws with a single
+ * multiply, and {@link #split} derives an independent stream from a key, so every player and subsystem can have
+ * its own stream without the draws of one changing what the others see.
+ * The same seed gives the same streams on every client.
+ */
+public final class SnakeRandom
+{
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final long initialState;
+	private long state;
+
+	public SnakeRandom(long seed)
+	{
+		initialState = mix(seed);
+		state = initialState;
+	}
+
+	/**
+	 * @return a new stream that only depends on this stream's seed and the key, not on how much was drawn from it
+	 */
+	public SnakeRandom split(long key)
+	{
+		return new SnakeRandom(seedOf(key));
+	}
+
+	public long nextLong()
+	{
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	/**
+	 * @return a uniform value in [0, bound), using Lemire's multiply and reject method
+	 */
+	public int nextInt(int bound)
+	{
+		if (bound <= 0)
+		{
+			throw new IllegalArgumentException("bound must be positive");
+		}
+
+		long product = (nextLong() >>> 32) * bound;
+		if ((product & 0xffffffffL) < bound)
+		{
+			long threshold = (0x100000000L - bound) % bound;
+			while ((product & 0xffffffffL) < threshold)
+			{
+				product = (nextLong() >>> 32) * bound;
+			}
+		}
+		return (int) (product >>> 32);
+	}
+
+	private long seedOf(long key)
+	{
+		return mix(key * GOLDEN_GAMMA) ^ initialState;
+	}
+
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
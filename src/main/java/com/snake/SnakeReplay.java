@@ -0,0 +1,176 @@
+package com.snake;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+import lombok.Getter;
+
+/**
+ * A replay file read into memory: the header fields and the undecoded tick records.
+ * <p>
+ * A file that was cut off, because the client closed mid-game or the writer refused a chunk, has no end tag
+ * and an unfinished deflate stream. Its records are kept up to where the stream ends, and playback stops
+ * at the last complete tick. Only a file cut off within its header is rejected.
+ */
+@Getter
+public class SnakeReplay
+{
+	private static final int MAX_GAME_SIZE = 255;
+	private static final int MAX_PLAYER_COUNT = 255;
+
+	private long startTime;
+	private int gameSize;
+	private boolean allowRun;
+	private boolean isMultiplayer;
+	private boolean isSameFoodSpawn;
+	private int seed;
+	private int wallStartPoint;
+	private boolean[][] walkableTiles;
+	private SnakeGame.State startState;
+
+	private String[] playerNames;
+	private boolean[] activePlayers;
+	private int[] playerColors;
+	private int[] startLocations;
+	private int[] startScores;
+
+	private byte[] records;
+
+	private SnakeReplay()
+	{
+	}
+
+	public static SnakeReplay read(InputStream inputStream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new InflaterInputStream(inputStream));
+		if (in.readInt() != SnakeReplayFormat.MAGIC)
+		{
+			throw new IOException("Not a snake replay");
+		}
+		int version = in.readUnsignedByte();
+		if (version != SnakeReplayFormat.VERSION)
+		{
+			throw new IOException("Unsupported replay version " + version);
+		}
+
+		SnakeReplay replay = new SnakeReplay();
+		replay.startTime = in.readLong();
+		replay.gameSize = readVarInt(in);
+		if (replay.gameSize <= 0 || replay.gameSize > MAX_GAME_SIZE)
+		{
+			throw new IOException("Invalid replay game size " + replay.gameSize);
+		}
+		int flags = in.readUnsignedByte();
+		replay.allowRun = (flags & 1) != 0;
+		replay.isMultiplayer = (flags & 2) != 0;
+		replay.isSameFoodSpawn = (flags & 4) != 0;
+		replay.seed = in.readInt();
+		replay.wallStartPoint = in.readInt();
+		replay.walkableTiles = readWalkableTiles(in, replay.gameSize);
+		replay.startState = readState(in);
+
+		int playerCount = readVarInt(in);
+		if (playerCount <= 0 || playerCount > MAX_PLAYER_COUNT)
+		{
+			throw new IOException("Invalid replay player count " + playerCount);
+		}
+		replay.playerNames = new String[playerCount];
+		replay.activePlayers = new boolean[playerCount];
+		replay.playerColors = new int[playerCount];
+		replay.startLocations = new int[playerCount];
+		replay.startScores = new int[playerCount];
+		for (int i = 0; i < playerCount; i++)
+		{
+			byte[] name = new byte[readVarInt(in)];
+			in.readFully(name);
+			replay.playerNames[i] = new String(name, StandardCharsets.UTF_8);
+			replay.activePlayers[i] = in.readUnsignedByte() != 0;
+			replay.playerColors[i] = in.readInt();
+			replay.startLocations[i] = in.readInt();
+			replay.startScores[i] = readVarInt(in);
+		}
+
+		replay.records = readRecords(in);
+		return replay;
+	}
+
+	public int getPlayerCount()
+	{
+		return playerNames.length;
+	}
+
+	private static byte[] readRecords(InputStream in) throws IOException
+	{
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		try
+		{
+			int length;
+			while ((length = in.read(buffer)) != -1)
+			{
+				records.write(buffer, 0, length);
+			}
+		}
+		catch (EOFException e)
+		{
+			// cut off, keep what was inflated before the end
+		}
+		return records.toByteArray();
+	}
+
+	private static SnakeGame.State readState(int ordinal) throws IOException
+	{
+		SnakeGame.State[] states = SnakeGame.State.values();
+		if (ordinal < 0 || ordinal >= states.length)
+		{
+			throw new IOException("Invalid replay state " + ordinal);
+		}
+		return states[ordinal];
+	}
+
+	private static SnakeGame.State readState(DataInputStream in) throws IOException
+	{
+		return readState(in.readUnsignedByte());
+	}
+
+	private static boolean[][] readWalkableTiles(DataInputStream in, int gameSize) throws IOException
+	{
+		boolean[][] walkableTiles = new boolean[gameSize][gameSize];
+		int bits = 0;
+		int bitCount = 0;
+		for (int x = 0; x < gameSize; x++)
+		{
+			for (int y = 0; y < gameSize; y++)
+			{
+				if (bitCount == 0)
+				{
+					bits = in.readUnsignedByte();
+					bitCount = 8;
+				}
+				walkableTiles[x][y] = (bits & 1) != 0;
+				bits >>>= 1;
+				bitCount--;
+			}
+		}
+		return walkableTiles;
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Invalid replay varint");
+	}
+}
@@ -0,0 +1,90 @@
+package com.snake;
+
+import javax.inject.Singleton;
+import lombok.Getter;
+
+/**
+ * Pause, speed and seeking for the replay being watched.
+ */
+@Singleton
+public class SnakeReplayController
+{
+	public static final int MAX_SPEED = 16;
+
+	@Getter
+	private SnakeReplayPlayback playback;
+	@Getter
+	private int speed = 1;
+	@Getter
+	private boolean isPaused;
+
+	/**
+	 * Increases whenever the playback changed, like {@link SnakeGame#getStateVersion()}.
+	 */
+	@Getter
+	private int version;
+
+	public void start(SnakeReplayPlayback playback)
+	{
+		this.playback = playback;
+		speed = 1;
+		isPaused = false;
+		version++;
+	}
+
+	public void stop()
+	{
+		if (playback != null)
+		{
+			playback = null;
+			version++;
+		}
+	}
+
+	public boolean isActive()
+	{
+		return playback != null;
+	}
+
+	/**
+	 * Advances by as many replay ticks as the speed, pausing at the end of the replay.
+	 */
+	public void tick()
+	{
+		if (playback == null || isPaused)
+		{
+			return;
+		}
+
+		for (int i = 0; i < speed; i++)
+		{
+			if (!playback.step())
+			{
+				isPaused = true;
+				break;
+			}
+		}
+		version++;
+	}
+
+	public void setSpeed(int speed)
+	{
+		this.speed = Math.max(1, Math.min(speed, MAX_SPEED));
+		version++;
+	}
+
+	public void setPaused(boolean isPaused)
+	{
+		this.isPaused = isPaused;
+		version++;
+	}
+
+	public void seek(int tick)
+	{
+		if (playback != null)
+		{
+			playback.seek(tick);
+			version++;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.snake;
+
+/**
+ * Layout of a deflated replay file.
+ * <p>
+ * The header holds the magic, version, start time, game options, board origin, walkable tiles and the players.
+ * It is followed by records, each starting with a tag byte:
+ * <ul>
+ * <li>{@link #TAG_TICK}: one move code per player alive before the tick, in player id order</li>
+ * <li>{@link #TAG_FOOD}: player id and the new food location as a board offset</li>
+ * <li>{@link #TAG_STATE}: the state ordinal the game changed to</li>
+ * <li>{@link #TAG_END}: the end of the replay</li>
+ * </ul>
+ */
+final class SnakeReplayFormat
+{
+	static final int MAGIC = 0x534e4b52;
+	static final int VERSION = 2;
+
+	static final int TAG_END = 0;
+	static final int TAG_TICK = 1;
+	static final int TAG_FOOD = 2;
+	static final int TAG_STATE = 3;
+
+	/**
+	 * Moves of up to two tiles per axis are a single code, anything further is followed by the absolute location.
+	 */
+	static final int MAX_MOVE = 2;
+	static final int MOVE_RANGE = 2 * MAX_MOVE + 1;
+	static final int MOVE_ABSOLUTE = MOVE_RANGE * MOVE_RANGE;
+	static final int MOVE_MASK = 0x1f;
+	static final int FLAG_GROW = 0x20;
+	static final int FLAG_DEATH = 0x40;
+
+	static final int NO_LOCATION = 0;
+
+	private SnakeReplayFormat()
+	{
+	}
+
+	/**
+	 * @return the move code from one location to the next, or {@link #MOVE_ABSOLUTE} if it does not fit
+	 */
+	static int encodeMove(int from, int to)
+	{
+		int dx = SnakePoint.getX(to) - SnakePoint.getX(from);
+		int dy = SnakePoint.getY(to) - SnakePoint.getY(from);
+		if (Math.abs(dx) > MAX_MOVE || Math.abs(dy) > MAX_MOVE || SnakePoint.getPlane(to) != SnakePoint.getPlane(from))
+		{
+			return MOVE_ABSOLUTE;
+		}
+		return (dx + MAX_MOVE) * MOVE_RANGE + dy + MAX_MOVE;
+	}
+
+	static int decodeMove(int from, int moveCode)
+	{
+		int dx = moveCode / MOVE_RANGE - MAX_MOVE;
+		int dy = moveCode % MOVE_RANGE - MAX_MOVE;
+		return SnakePoint.pack(SnakePoint.getX(from) + dx, SnakePoint.getY(from) + dy, SnakePoint.getPlane(from));
+	}
+
+	/**
+	 * @return the location as an offset into the board including walls, or {@link #NO_LOCATION}
+	 */
+	static int encodeLocation(int wallStartPoint, int gameSize, int location)
+	{
+		if (location == SnakePoint.NONE)
+		{
+			return NO_LOCATION;
+		}
+		int x = SnakePoint.getX(location) - SnakePoint.getX(wallStartPoint);
+		int y = SnakePoint.getY(wallStartPoint) - SnakePoint.getY(location);
+		return 1 + x * (gameSize + 2) + y;
+	}
+
+	static int decodeLocation(int wallStartPoint, int gameSize, int encodedLocation)
+	{
+		if (encodedLocation == NO_LOCATION)
+		{
+			return SnakePoint.NONE;
+		}
+		int offset = encodedLocation - 1;
+		return SnakePoint.pack(SnakePoint.getX(wallStartPoint) + offset / (gameSize + 2),
+			SnakePoint.getY(wallStartPoint) - offset % (gameSize + 2), SnakePoint.getPlane(wallStartPoint));
+	}
+}
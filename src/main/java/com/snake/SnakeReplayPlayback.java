@@ -0,0 +1,372 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Plays a {@link SnakeReplay} on {@link SnakePlayer} objects, so it can be drawn by the same view as a live game.
+ * The replay is moved to the given board origin, so it can be watched anywhere.
+ * <p>
+ * All ticks are applied once on load, storing a keyframe of every player every {@link #KEYFRAME_INTERVAL} ticks.
+ * Seeking restores the nearest earlier keyframe and applies the remaining ticks.
+ */
+public class SnakeReplayPlayback
+{
+	private static final int KEYFRAME_INTERVAL = 100;
+
+	@Getter
+	private final SnakeReplay replay;
+	@Getter
+	private final List<SnakePlayer> snakePlayers = new ArrayList<>();
+	@Getter
+	private SnakeGame.State currentState;
+	@Getter
+	private int tick;
+	@Getter
+	private int tickCount;
+	/**
+	 * Ticks since the game started playing, like {@link SnakeGame#getPlayingTickCount()}.
+	 */
+	@Getter
+	private int playingTickCount;
+
+	private final int wallStartPoint;
+	private final int offsetX;
+	private final int offsetY;
+	private final int gameSize;
+	private final SnakeBoard board;
+
+	private final byte[] records;
+	private int position;
+	private boolean isTruncated;
+	private final List<Keyframe> keyframes = new ArrayList<>();
+
+	private final int[] moveCodes;
+	private final int[] absoluteLocations;
+	private final int[] foodPlayerIds;
+	private final int[] foodLocations;
+
+	public SnakeReplayPlayback(SnakeReplay replay, int wallStartPoint)
+	{
+		this.replay = replay;
+		this.wallStartPoint = wallStartPoint;
+		this.offsetX = SnakePoint.getX(wallStartPoint) - SnakePoint.getX(replay.getWallStartPoint());
+		this.offsetY = SnakePoint.getY(wallStartPoint) - SnakePoint.getY(replay.getWallStartPoint());
+		this.gameSize = replay.getGameSize();
+		this.records = replay.getRecords();
+
+		int playerCount = replay.getPlayerCount();
+		moveCodes = new int[playerCount];
+		absoluteLocations = new int[playerCount];
+		foodPlayerIds = new int[playerCount];
+		foodLocations = new int[playerCount];
+
+		board = new SnakeBoard(wallStartPoint, replay.getWalkableTiles(), new SnakeEventLog());
+		for (int i = 0; i < playerCount; i++)
+		{
+			SnakePlayer snakePlayer = new SnakePlayer(i, replay.getPlayerNames()[i], translate(replay.getStartLocations()[i]), board,
+				new Color(replay.getPlayerColors()[i]), replay.getActivePlayers()[i]);
+			snakePlayer.setScore(replay.getStartScores()[i]);
+			snakePlayer.setReady(true);
+			snakePlayers.add(snakePlayer);
+		}
+		currentState = replay.getStartState();
+
+		keyframes.add(new Keyframe());
+		while (applyNextTick())
+		{
+			tick++;
+			if (tick % KEYFRAME_INTERVAL == 0)
+			{
+				keyframes.add(new Keyframe());
+			}
+		}
+		tickCount = tick;
+		seek(0);
+	}
+
+	/**
+	 * @return false if the replay is at its end
+	 */
+	public boolean step()
+	{
+		if (tick >= tickCount)
+		{
+			return false;
+		}
+		applyNextTick();
+		tick++;
+		return true;
+	}
+
+	public void seek(int targetTick)
+	{
+		int target = Math.max(0, Math.min(targetTick, tickCount));
+		keyframes.get(target / KEYFRAME_INTERVAL).restore();
+		while (tick < target)
+		{
+			step();
+		}
+	}
+
+	/**
+	 * Reads the next tick with its food and state records, and applies it the same way {@link SnakeGame} did.
+	 *
+	 * @return false if there is no complete tick left
+	 */
+	private boolean applyNextTick()
+	{
+		if (readByte() != SnakeReplayFormat.TAG_TICK)
+		{
+			return false;
+		}
+
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (snakePlayer.isAlive())
+			{
+				int id = snakePlayer.getId();
+				moveCodes[id] = readByte();
+				if ((moveCodes[id] & SnakeReplayFormat.MOVE_MASK) == SnakeReplayFormat.MOVE_ABSOLUTE)
+				{
+					absoluteLocations[id] = readInt();
+				}
+			}
+		}
+
+		int foodCount = 0;
+		SnakeGame.State nextState = currentState;
+		while (!isTruncated && position < records.length)
+		{
+			int tag = records[position];
+			if (tag == SnakeReplayFormat.TAG_FOOD && foodCount < foodPlayerIds.length)
+			{
+				position++;
+				foodPlayerIds[foodCount] = readVarInt();
+				foodLocations[foodCount] = readVarInt();
+				foodCount++;
+			}
+			else if (tag == SnakeReplayFormat.TAG_STATE)
+			{
+				position++;
+				int ordinal = readByte();
+				if (ordinal >= SnakeGame.State.values().length)
+				{
+					return false;
+				}
+				nextState = SnakeGame.State.values()[ordinal];
+			}
+			else
+			{
+				break;
+			}
+		}
+
+		if (isTruncated)
+		{
+			return false;
+		}
+
+		applyMoves();
+		for (int i = 0; i < foodCount; i++)
+		{
+			if (foodPlayerIds[i] < snakePlayers.size())
+			{
+				int foodLocation = SnakeReplayFormat.decodeLocation(wallStartPoint, gameSize, foodLocations[i]);
+				setFoodLocation(snakePlayers.get(foodPlayerIds[i]), foodLocation);
+			}
+		}
+		applyTrailMoves(nextState);
+		if (currentState == SnakeGame.State.PLAYING)
+		{
+			playingTickCount++;
+		}
+		setState(nextState);
+		return true;
+	}
+
+	private void applyMoves()
+	{
+		for (SnakePlayer snakePlayer : snakePlayers)
+		{
+			if (!snakePlayer.isAlive())
+			{
+				continue;
+			}
+
+			int id = snakePlayer.getId();
+			int moveCode = moveCodes[id] & SnakeReplayFormat.MOVE_MASK;
+			snakePlayer.updateLocation(moveCode == SnakeReplayFormat.MOVE_ABSOLUTE ?
+				translate(absoluteLocations[id]) : SnakeReplayFormat.decodeMove(snakePlayer.getCurrentLocation(), moveCode));
+
+			if (currentState != SnakeGame.State.PLAYING)
+			{
+				continue;
+			}
+
+			if ((moveCodes[id] & SnakeReplayFormat.FLAG_DEATH) != 0)
+			{
+				snakePlayer.setAlive(false);
+			}
+			else if ((moveCodes[id] & SnakeReplayFormat.FLAG_GROW) != 0)
+			{
+				snakePlayer.setShouldGrow(true);
+				snakePlayer.increaseScore();
+			}
+		}
+	}
+
+	private void applyTrailMoves(SnakeGame.State nextState)
+	{
+		if (currentState == SnakeGame.State.WAITING_TO_START || currentState == SnakeGame.State.READY)
+		{
+			for (SnakePlayer snakePlayer : snakePlayers)
+			{
+				snakePlayer.moveSnakeTrail();
+				if (nextState == SnakeGame.State.PLAYING)
+				{
+					snakePlayer.fillInitialSnakeTrail();
+				}
+			}
+		}
+		else if (currentState == SnakeGame.State.PLAYING && nextState != SnakeGame.State.GAME_OVER)
+		{
+			for (SnakePlayer snakePlayer : snakePlayers)
+			{
+				if (snakePlayer.isAlive())
+				{
+					snakePlayer.moveSnakeTrail();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the {@link SnakeStateHash} at the current tick, to compare with the one shown while the game was played
+	 */
+	public long getStateHash()
+	{
+		return board.getStateHash().getValue();
+	}
+
+	public SnakeEventLog getEventLog()
+	{
+		return board.getEventLog();
+	}
+
+	private void setState(SnakeGame.State state)
+	{
+		if (state != currentState)
+		{
+			currentState = state;
+			board.getEventLog().publish(SnakeEventLog.STATE_CHANGED, 0, state.ordinal());
+		}
+	}
+
+	private void setFoodLocation(SnakePlayer snakePlayer, int foodLocation)
+	{
+		board.moveFood(snakePlayer.getFoodLocation(), foodLocation, snakePlayer.getId());
+		snakePlayer.setFoodLocation(foodLocation);
+	}
+
+	private int translate(int point)
+	{
+		return SnakePoint.pack(SnakePoint.getX(point) + offsetX, SnakePoint.getY(point) + offsetY, SnakePoint.getPlane(wallStartPoint));
+	}
+
+	private int readByte()
+	{
+		if (position >= records.length)
+		{
+			isTruncated = true;
+			return -1;
+		}
+		return records[position++] & 0xff;
+	}
+
+	private int readInt()
+	{
+		return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+	}
+
+	private int readVarInt()
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			int b = readByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		isTruncated = true;
+		return 0;
+	}
+
+	/**
+	 * The state of every player after a tick, and where the records continue from there.
+	 */
+	private class Keyframe
+	{
+		private final int tick;
+		private final int playingTickCount;
+		private final int position;
+		private final SnakeGame.State state;
+		private final int[] locations;
+		private final int[] foodLocations;
+		private final int[] scores;
+		private final boolean[] isAlive;
+		private final int[][] trails;
+
+		private Keyframe()
+		{
+			int playerCount = snakePlayers.size();
+			tick = SnakeReplayPlayback.this.tick;
+			playingTickCount = SnakeReplayPlayback.this.playingTickCount;
+			position = SnakeReplayPlayback.this.position;
+			state = currentState;
+			locations = new int[playerCount];
+			foodLocations = new int[playerCount];
+			scores = new int[playerCount];
+			isAlive = new boolean[playerCount];
+			trails = new int[playerCount][];
+			for (int i = 0; i < playerCount; i++)
+			{
+				SnakePlayer snakePlayer = snakePlayers.get(i);
+				locations[i] = snakePlayer.getCurrentLocation();
+				foodLocations[i] = snakePlayer.getFoodLocation();
+				scores[i] = snakePlayer.getScore();
+				isAlive[i] = snakePlayer.isAlive();
+
+				SnakeTrail snakeTrail = snakePlayer.getSnakeTrail();
+				trails[i] = new int[snakeTrail.size()];
+				for (int j = 0; j < trails[i].length; j++)
+				{
+					trails[i][j] = snakeTrail.get(j);
+				}
+			}
+		}
+
+		private void restore()
+		{
+			SnakeReplayPlayback.this.tick = tick;
+			SnakeReplayPlayback.this.playingTickCount = playingTickCount;
+			SnakeReplayPlayback.this.position = position;
+			isTruncated = false;
+			setState(state);
+			for (int i = 0; i < snakePlayers.size(); i++)
+			{
+				SnakePlayer snakePlayer = snakePlayers.get(i);
+				snakePlayer.updateLocation(locations[i]);
+				setFoodLocation(snakePlayer, foodLocations[i]);
+				snakePlayer.setScore(scores[i]);
+				snakePlayer.restoreTrail(trails[i]);
+				snakePlayer.setAlive(isAlive[i]);
+			}
+		}
+	}
+}
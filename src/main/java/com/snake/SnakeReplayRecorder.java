@@ -0,0 +1,323 @@
+package com.snake;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encodes a game into the {@link SnakeReplayFormat} as it is played. Bytes are collected into chunks
+ * on the client thread and handed to the {@link SnakeReplayWriter} when full.
+ * <p>
+ * Growing, deaths and food moves are read from the game's {@link SnakeEventLog}, only the moves
+ * come from the player locations.
+ */
+@Slf4j
+@Singleton
+public class SnakeReplayRecorder
+{
+	static final String FILE_EXTENSION = ".snake";
+
+	private static final int CHUNK_SIZE = 4096;
+	private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("'replay-'yyyy-MM-dd_HH-mm-ss-SSS");
+
+	private final SnakeReplayWriter writer;
+
+	@Getter
+	private boolean isRecording;
+	private File file;
+	private String previousFileName;
+	private int fileNameSuffix;
+	private byte[] chunk;
+	private int chunkLength;
+
+	private int wallStartPoint;
+	private int gameSize;
+	private SnakeGame.State recordedState;
+	private SnakeEventLog eventLog;
+	private long eventCursor;
+	private int[] locations;
+	private int[] foodLocations;
+	private boolean[] isAlive;
+	private boolean[] isGrown;
+	private boolean[] isDead;
+	private boolean[] isFoodMoved;
+
+	@Inject
+	public SnakeReplayRecorder(SnakeReplayWriter writer)
+	{
+		this.writer = writer;
+	}
+
+	/**
+	 * Games started within the same millisecond get a numbered suffix, so a recording never takes the name of the one before.
+	 */
+	private String nextFileName()
+	{
+		String fileName = LocalDateTime.now().format(FILE_NAME_FORMAT);
+		fileNameSuffix = fileName.equals(previousFileName) ? fileNameSuffix + 1 : 0;
+		previousFileName = fileName;
+		return (fileNameSuffix == 0 ? fileName : fileName + "-" + fileNameSuffix) + FILE_EXTENSION;
+	}
+
+	public void start(int wallStartPoint, int gameSize, boolean allowRun, boolean isMultiplayer, boolean isSameFoodSpawn, int seed,
+		boolean[][] walkableTiles, SnakeGame.State state, SnakeEventLog eventLog, List<SnakePlayer> snakePlayers)
+	{
+		stop();
+
+		file = new File(SnakeReplayWriter.REPLAY_DIR, nextFileName());
+		chunk = new byte[CHUNK_SIZE];
+		chunkLength = 0;
+		isRecording = true;
+
+		this.wallStartPoint = wallStartPoint;
+		this.gameSize = gameSize;
+		recordedState = state;
+		this.eventLog = eventLog;
+		eventCursor = eventLog.getSequence();
+
+		int playerCount = snakePlayers.size();
+		locations = new int[playerCount];
+		foodLocations = new int[playerCount];
+		isAlive = new boolean[playerCount];
+		isGrown = new boolean[playerCount];
+		isDead = new boolean[playerCount];
+		isFoodMoved = new boolean[playerCount];
+
+		writeInt(SnakeReplayFormat.MAGIC);
+		writeByte(SnakeReplayFormat.VERSION);
+		writeLong(System.currentTimeMillis());
+		writeVarInt(gameSize);
+		writeByte((allowRun ? 1 : 0) | (isMultiplayer ? 2 : 0) | (isSameFoodSpawn ? 4 : 0));
+		writeInt(seed);
+		writeInt(wallStartPoint);
+		writeWalkableTiles(walkableTiles);
+		writeByte(state.ordinal());
+		writeVarInt(playerCount);
+		for (int i = 0; i < playerCount; i++)
+		{
+			SnakePlayer snakePlayer = snakePlayers.get(i);
+			writeString(snakePlayer.getPlayerName());
+			writeByte(snakePlayer.isActivePlayer() ? 1 : 0);
+			writeInt(snakePlayer.getColor().getRGB());
+			writeInt(snakePlayer.getCurrentLocation());
+			writeVarInt(snakePlayer.getScore());
+
+			locations[i] = snakePlayer.getCurrentLocation();
+			foodLocations[i] = snakePlayer.getFoodLocation();
+			isAlive[i] = snakePlayer.isAlive();
+		}
+	}
+
+	/**
+	 * Records the moves, food changes and state change of the tick that just ran.
+	 * Stops recording if the tick published more events than the log holds.
+	 */
+	public void recordTick(SnakeGame.State state, List<SnakePlayer> snakePlayers)
+	{
+		if (!isRecording)
+		{
+			return;
+		}
+		if (!readEvents())
+		{
+			log.warn("Missed game events, stopped recording {}", file);
+			isRecording = false;
+			return;
+		}
+
+		writeByte(SnakeReplayFormat.TAG_TICK);
+		for (int i = 0; i < isAlive.length; i++)
+		{
+			if (!isAlive[i])
+			{
+				continue;
+			}
+
+			int location = snakePlayers.get(i).getCurrentLocation();
+			int moveCode = SnakeReplayFormat.encodeMove(locations[i], location);
+			int code = moveCode;
+			if (isGrown[i])
+			{
+				code |= SnakeReplayFormat.FLAG_GROW;
+			}
+			if (isDead[i])
+			{
+				code |= SnakeReplayFormat.FLAG_DEATH;
+			}
+			writeByte(code);
+			if (moveCode == SnakeReplayFormat.MOVE_ABSOLUTE)
+			{
+				writeInt(location);
+			}
+
+			locations[i] = location;
+			isAlive[i] = !isDead[i];
+		}
+
+		for (int i = 0; i < foodLocations.length; i++)
+		{
+			if (isFoodMoved[i])
+			{
+				writeByte(SnakeReplayFormat.TAG_FOOD);
+				writeVarInt(i);
+				writeVarInt(SnakeReplayFormat.encodeLocation(wallStartPoint, gameSize, foodLocations[i]));
+			}
+		}
+
+		if (state != recordedState)
+		{
+			writeByte(SnakeReplayFormat.TAG_STATE);
+			writeByte(state.ordinal());
+			recordedState = state;
+		}
+	}
+
+	/**
+	 * Collects who grew, died or had their food moved since the last tick.
+	 *
+	 * @return false if events were overwritten before they were read
+	 */
+	private boolean readEvents()
+	{
+		long sequence = eventLog.getSequence();
+		if (eventLog.isOverrun(eventCursor))
+		{
+			eventCursor = sequence;
+			return false;
+		}
+
+		Arrays.fill(isGrown, false);
+		Arrays.fill(isDead, false);
+		Arrays.fill(isFoodMoved, false);
+		for (; eventCursor < sequence; eventCursor++)
+		{
+			long event = eventLog.get(eventCursor);
+			int playerId = SnakeEventLog.getPlayerId(event);
+			switch (SnakeEventLog.getType(event))
+			{
+				case SnakeEventLog.GREW:
+					isGrown[playerId] = true;
+					break;
+				case SnakeEventLog.DIED:
+					isDead[playerId] = true;
+					break;
+				case SnakeEventLog.FOOD_MOVED:
+					isFoodMoved[playerId] = true;
+					foodLocations[playerId] = SnakeEventLog.getValue(event);
+					break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Ends the replay and hands the rest of it to the writer, which closes the file even when its queue is full.
+	 * After a dropped chunk only the file is closed.
+	 */
+	public void stop()
+	{
+		if (file == null)
+		{
+			return;
+		}
+
+		if (isRecording)
+		{
+			writeByte(SnakeReplayFormat.TAG_END);
+		}
+		writer.offerLast(file, chunk, isRecording ? chunkLength : 0);
+		isRecording = false;
+		file = null;
+		chunk = null;
+	}
+
+	private void ensureCapacity(int length)
+	{
+		if (chunkLength + length <= chunk.length)
+		{
+			return;
+		}
+
+		if (isRecording && writer.offer(file, chunk, chunkLength, false))
+		{
+			chunk = new byte[CHUNK_SIZE];
+		}
+		else if (isRecording)
+		{
+			log.warn("Replay writer is behind, stopped recording {}", file);
+			isRecording = false;
+		}
+		chunkLength = 0;
+	}
+
+	private void writeByte(int value)
+	{
+		ensureCapacity(1);
+		chunk[chunkLength++] = (byte) value;
+	}
+
+	private void writeInt(int value)
+	{
+		ensureCapacity(4);
+		chunk[chunkLength++] = (byte) (value >>> 24);
+		chunk[chunkLength++] = (byte) (value >>> 16);
+		chunk[chunkLength++] = (byte) (value >>> 8);
+		chunk[chunkLength++] = (byte) value;
+	}
+
+	private void writeLong(long value)
+	{
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void writeVarInt(int value)
+	{
+		while ((value & ~0x7f) != 0)
+		{
+			writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	private void writeWalkableTiles(boolean[][] walkableTiles)
+	{
+		int bits = 0;
+		int bitCount = 0;
+		for (int x = 0; x < gameSize; x++)
+		{
+			for (int y = 0; y < gameSize; y++)
+			{
+				bits |= (walkableTiles[x][y] ? 1 : 0) << bitCount;
+				if (++bitCount == 8)
+				{
+					writeByte(bits);
+					bits = 0;
+					bitCount = 0;
+				}
+			}
+		}
+		if (bitCount > 0)
+		{
+			writeByte(bits);
+		}
+	}
+
+	private void writeString(String value)
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		for (byte b : bytes)
+		{
+			writeByte(b);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.snake;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.DeflaterOutputStream;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+/**
+ * Writes replay chunks to disk on the executor. Chunks are handed over through a bounded queue,
+ * so the client thread never waits on the disk: when the queue is full the chunk is refused instead.
+ * Files are only ever created, a replay that already exists is left as it is and the new one is dropped.
+ */
+@Slf4j
+@Singleton
+public class SnakeReplayWriter
+{
+	static final File REPLAY_DIR = new File(RuneLite.RUNELITE_DIR, "snake" + File.separator + "replays");
+
+	private static final int MAX_QUEUED_CHUNKS = 64;
+
+	private final ScheduledExecutorService executor;
+	private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+
+	private File openFile;
+	private OutputStream openStream;
+	private File failedFile;
+
+	@Inject
+	public SnakeReplayWriter(ScheduledExecutorService executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * @param isLast closes the file after this chunk
+	 * @return false if the queue is full and the chunk was dropped
+	 */
+	public boolean offer(File file, byte[] data, int length, boolean isLast)
+	{
+		if (!chunks.offer(new Chunk(file, data, length, isLast)))
+		{
+			return false;
+		}
+		executor.execute(this::drain);
+		return true;
+	}
+
+	/**
+	 * Hands over the last chunk of a file. Unlike {@link #offer} the file is always closed: when the queue is full,
+	 * a task on the executor writes the queued chunks and then this one, if its file is still the open one.
+	 */
+	public void offerLast(File file, byte[] data, int length)
+	{
+		if (!offer(file, data, length, true))
+		{
+			Chunk last = new Chunk(file, data, length, true);
+			executor.execute(() -> writeAfterQueued(last));
+		}
+	}
+
+	private synchronized void drain()
+	{
+		Chunk chunk;
+		while ((chunk = chunks.poll()) != null)
+		{
+			write(chunk);
+		}
+	}
+
+	/**
+	 * A file is no longer open once chunks of a later file were written, or if none of its chunks got queued.
+	 * Its end is dropped then, leaving a replay that plays up to where it was cut off.
+	 */
+	private synchronized void writeAfterQueued(Chunk last)
+	{
+		drain();
+		if (last.file == openFile)
+		{
+			write(last);
+		}
+		else if (last.file != failedFile)
+		{
+			log.warn("Replay writer is behind, dropped the end of {}", last.file);
+		}
+	}
+
+	private void write(Chunk chunk)
+	{
+		if (chunk.file == failedFile)
+		{
+			return;
+		}
+
+		try
+		{
+			if (chunk.file != openFile)
+			{
+				close();
+				REPLAY_DIR.mkdirs();
+				openStream = new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(chunk.file.toPath(), StandardOpenOption.CREATE_NEW)));
+				openFile = chunk.file;
+			}
+
+			openStream.write(chunk.data, 0, chunk.length);
+			if (chunk.isLast)
+			{
+				close();
+			}
+		}
+		catch (FileAlreadyExistsException e)
+		{
+			log.warn("Replay {} already exists, not overwriting it", chunk.file);
+			failedFile = chunk.file;
+			close();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to write replay {}", chunk.file, e);
+			failedFile = chunk.file;
+			close();
+		}
+	}
+
+	private void close()
+	{
+		if (openStream != null)
+		{
+			try
+			{
+				openStream.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to close replay {}", openFile, e);
+			}
+		}
+		openStream = null;
+		openFile = null;
+	}
+
+	private static class Chunk
+	{
+		private final File file;
+		private final byte[] data;
+		private final int length;
+		private final boolean isLast;
+
+		private Chunk(File file, byte[] data, int length, boolean isLast)
+		{
+			this.file = file;
+			this.data = data;
+			this.length = length;
+			this.isLast = isLast;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.snake;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Translates world points to scene and local points using the scene base, which only changes when a new region loads.
+ * The local points of the board and its walls are precomputed, so looking one up is an array index.
+ */
+@Singleton
+public class SnakeSceneMapper
+{
+	private final Client client;
+
+	private int minX;
+	private int maxY;
+	private int areaSize;
+	private LocalPoint[] localPoints = new LocalPoint[0];
+
+	private int baseX = -1;
+	private int baseY = -1;
+	@Getter
+	private int plane;
+
+	@Inject
+	public SnakeSceneMapper(Client client)
+	{
+		this.client = client;
+	}
+
+	/**
+	 * Sets the area covered by the lookup table, the board including its walls.
+	 */
+	public void setArea(WorldPoint wallStartPoint, int gameSize)
+	{
+		minX = wallStartPoint.getX();
+		maxY = wallStartPoint.getY();
+		areaSize = gameSize + 2;
+		localPoints = new LocalPoint[areaSize * areaSize];
+		rebuild();
+	}
+
+	/**
+	 * @return true if the scene base changed and the lookup table was rebuilt
+	 */
+	public boolean update()
+	{
+		if (client.getBaseX() == baseX && client.getBaseY() == baseY && client.getPlane() == plane)
+		{
+			return false;
+		}
+		rebuild();
+		return true;
+	}
+
+	public int toSceneX(int worldX)
+	{
+		return worldX - baseX;
+	}
+
+	public int toSceneY(int worldY)
+	{
+		return worldY - baseY;
+	}
+
+	public LocalPoint getLocalPoint(WorldPoint worldPoint)
+	{
+		return getLocalPoint(worldPoint.getX(), worldPoint.getY());
+	}
+
+	public LocalPoint getLocalPoint(int point)
+	{
+		return getLocalPoint(SnakePoint.getX(point), SnakePoint.getY(point));
+	}
+
+	private LocalPoint getLocalPoint(int worldX, int worldY)
+	{
+		int x = worldX - minX;
+		int y = maxY - worldY;
+		if (x >= 0 && x < areaSize && y >= 0 && y < areaSize)
+		{
+			return localPoints[x * areaSize + y];
+		}
+		return toLocalPoint(worldX, worldY);
+	}
+
+	private void rebuild()
+	{
+		baseX = client.getBaseX();
+		baseY = client.getBaseY();
+		plane = client.getPlane();
+		for (int x = 0; x < areaSize; x++)
+		{
+			for (int y = 0; y < areaSize; y++)
+			{
+				localPoints[x * areaSize + y] = toLocalPoint(minX + x, maxY - y);
+			}
+		}
+	}
+
+	private LocalPoint toLocalPoint(int worldX, int worldY)
+	{
+		int sceneX = toSceneX(worldX);
+		int sceneY = toSceneY(worldY);
+		if (sceneX < 0 || sceneX >= Constants.SCENE_SIZE || sceneY < 0 || sceneY >= Constants.SCENE_SIZE)
+		{
+			return null;
+		}
+		return new LocalPoint(
+			(sceneX << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE,
+			(sceneY << Perspective.LOCAL_COORD_BITS) + Perspective.LOCAL_HALF_TILE_SIZE);
+	}
+}
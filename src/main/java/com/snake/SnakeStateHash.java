@@ -0,0 +1,70 @@
+package com.snake;
+
+import lombok.Getter;
+
+/**
+ * Additive Zobrist hash of the game state: every trail segment, food and living player adds a key derived
+ * from its kind, player and location. Each change is one addition or subtraction, and the hash does not
+ * depend on the order of changes, so clients that agree on the state agree on the hash.
+ * Keys are summed instead of xored, since a tile can hold several segments of the same player.
+ * Points are relative to the board, so a replay watched somewhere else has the same hashes.
+ */
+public class SnakeStateHash
+{
+	private static final long SEGMENT = 1;
+	private static final long FOOD = 2;
+	private static final long ALIVE = 3;
+
+	@Getter
+	private long value;
+
+	public void addSegment(int point, int playerId)
+	{
+		value += key(SEGMENT, playerId, point);
+	}
+
+	public void removeSegment(int point, int playerId)
+	{
+		value -= key(SEGMENT, playerId, point);
+	}
+
+	public void addFood(int point, int playerId)
+	{
+		value += key(FOOD, playerId, point);
+	}
+
+	public void removeFood(int point, int playerId)
+	{
+		value -= key(FOOD, playerId, point);
+	}
+
+	public void reset()
+	{
+		value = 0;
+	}
+
+	public void setAlive(int playerId, boolean isAlive)
+	{
+		long key = key(ALIVE, playerId, 0);
+		value += isAlive ? key : -key;
+	}
+
+	/**
+	 * @return the hash folded to 8 hex digits, short enough to compare by eye
+	 */
+	public static String getDigest(long value)
+	{
+		return String.format("%08x", (int) (value ^ value >>> 32));
+	}
+
+	/**
+	 * The splitmix64 finalizer, so keys are computed instead of looked up in a table sized for the board.
+	 */
+	private static long key(long kind, int playerId, int point)
+	{
+		long z = (kind << 56 ^ (long) playerId << 32 ^ (point & 0xffffffffL)) + 0x9e3779b97f4a7c15L;
+		z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+		return z ^ z >>> 31;
+	}
+}
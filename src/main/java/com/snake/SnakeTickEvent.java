@@ -0,0 +1,25 @@
+package com.snake;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.snake.Tick")
+@Label("Snake Tick")
+@Description("A game tick of the snake state machine")
+@Category({"RuneLite", "Snake"})
+@Enabled(false)
+class SnakeTickEvent extends Event
+{
+	@Label("State")
+	String state;
+
+	@Label("Player Count")
+	int playerCount;
+
+	@Label("Total Trail Length")
+	int totalTrailLength;
+}
@@ -0,0 +1,98 @@
+package com.snake;
+
+import java.util.Locale;
+import javax.inject.Singleton;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Records how long each phase of a game tick takes. When disabled, no clock is read and nothing is recorded.
+ */
+@Singleton
+public class SnakeTickProfiler
+{
+	public enum Phase
+	{
+		TICK("Tick"),
+		LOCATION_UPDATE("Locations"),
+		MOVEMENT_VALIDATION("Validation"),
+		FOOD("Food"),
+		TRAIL_MOVEMENT("Trails"),
+		VIEW_UPDATE("View"),
+		TRAIL_RENDER("Trail render"),
+		FOOD_RENDER("Food render");
+
+		@Getter
+		private final String displayName;
+
+		Phase(String displayName)
+		{
+			this.displayName = displayName;
+		}
+	}
+
+	private final SnakeLatencyHistogram[] histograms = new SnakeLatencyHistogram[Phase.values().length];
+
+	@Getter
+	@Setter
+	private boolean isEnabled;
+
+	public SnakeTickProfiler()
+	{
+		for (int i = 0; i < histograms.length; i++)
+		{
+			histograms[i] = new SnakeLatencyHistogram();
+		}
+	}
+
+	/**
+	 * @return the start time to pass to {@link #stop}
+	 */
+	public long start()
+	{
+		return isEnabled ? System.nanoTime() : 0;
+	}
+
+	public void stop(Phase phase, long startNanos)
+	{
+		if (isEnabled)
+		{
+			histograms[phase.ordinal()].record(System.nanoTime() - startNanos);
+		}
+	}
+
+	public SnakeLatencyHistogram getHistogram(Phase phase)
+	{
+		return histograms[phase.ordinal()];
+	}
+
+	public void reset()
+	{
+		for (SnakeLatencyHistogram histogram : histograms)
+		{
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * @return p50, p99 and max of a phase in microseconds
+	 */
+	public String getSummary(Phase phase)
+	{
+		SnakeLatencyHistogram histogram = getHistogram(phase);
+		return String.format(Locale.ROOT, "%.1f / %.1f / %.1f",
+			histogram.getPercentile(50) / 1000.0, histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+	}
+
+	public String getReport()
+	{
+		StringBuilder report = new StringBuilder("phase,count,p50_us,p99_us,max_us\n");
+		for (Phase phase : Phase.values())
+		{
+			SnakeLatencyHistogram histogram = getHistogram(phase);
+			report.append(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f%n", phase.name(), histogram.getCount(),
+				histogram.getPercentile(50) / 1000.0, histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+		}
+		return report.toString();
+	}
+}
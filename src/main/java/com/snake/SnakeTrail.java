@@ -0,0 +1,87 @@
+package com.snake;
+
+import lombok.Getter;
+
+/**
+ * Growable ring buffer of packed points, ordered from tail (index 0) to head (index size - 1).
+ * Moving the snake only writes into the existing array, so a steady-state tick does not allocate.
+ * <p>
+ * The sequence counters count every point ever added and removed, so the point at index i has
+ * sequence tailSequence + i. Views use them to find what changed since they last looked.
+ */
+public class SnakeTrail
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] points = new int[INITIAL_CAPACITY];
+	private int tail;
+	private int size;
+
+	@Getter
+	private int headSequence;
+	@Getter
+	private int tailSequence;
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public int get(int index)
+	{
+		return points[(tail + index) & (points.length - 1)];
+	}
+
+	public int getHead()
+	{
+		return get(size - 1);
+	}
+
+	public int getTail()
+	{
+		return points[tail];
+	}
+
+	public void add(int point)
+	{
+		if (size == points.length)
+		{
+			grow();
+		}
+		points[(tail + size) & (points.length - 1)] = point;
+		size++;
+		headSequence++;
+	}
+
+	public int poll()
+	{
+		int point = points[tail];
+		tail = (tail + 1) & (points.length - 1);
+		size--;
+		tailSequence++;
+		return point;
+	}
+
+	public void clear()
+	{
+		tail = 0;
+		size = 0;
+		tailSequence = headSequence;
+	}
+
+	private void grow()
+	{
+		int[] grown = new int[points.length * 2];
+		for (int i = 0; i < size; i++)
+		{
+			grown[i] = get(i);
+		}
+		points = grown;
+		tail = 0;
+	}
+}
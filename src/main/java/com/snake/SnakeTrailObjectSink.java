@@ -0,0 +1,15 @@
+package com.snake;
+
+import java.awt.Color;
+
+/**
+ * Creates and places the objects drawing trail segments, for {@link SnakeTrailObjects}.
+ */
+public interface SnakeTrailObjectSink<T>
+{
+	T spawnTrailObject(Color color);
+
+	void setTrailObjectLocation(T obj, int point);
+
+	void hideTrailObject(T obj);
+}
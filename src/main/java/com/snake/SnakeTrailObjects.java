@@ -0,0 +1,79 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * The objects drawing one snake, from tail to head, and the {@link SnakeTrail} sequences they were last synced to.
+ */
+public class SnakeTrailObjects<T>
+{
+	private final Deque<T> segments = new ArrayDeque<>();
+	private final Deque<T> spares = new ArrayDeque<>();
+	private int headSequence;
+	private int tailSequence;
+
+	/**
+	 * Snakes only gain a head and lose a tail per tick, so only those segments are touched:
+	 * a freed tail object is moved to the new head, and objects are only spawned when a snake grows.
+	 */
+	public void update(SnakeTrail snakeTrail, Color color, SnakeTrailObjectSink<T> sink)
+	{
+		int removedCount = Math.min(snakeTrail.getTailSequence() - tailSequence, segments.size());
+		for (int i = 0; i < removedCount; i++)
+		{
+			spares.push(segments.pollFirst());
+		}
+
+		int firstNewSequence = Math.max(headSequence, snakeTrail.getTailSequence());
+		int addedCount = Math.max(snakeTrail.getHeadSequence() - firstNewSequence, 0);
+		for (int sequence = firstNewSequence; sequence < snakeTrail.getHeadSequence(); sequence++)
+		{
+			T obj = spares.isEmpty() ? sink.spawnTrailObject(color) : spares.pop();
+			sink.setTrailObjectLocation(obj, snakeTrail.get(sequence - snakeTrail.getTailSequence()));
+			segments.addLast(obj);
+		}
+
+		// objects freed this tick and not reused are on top of the spares, hide them
+		int unusedCount = removedCount - Math.min(removedCount, addedCount);
+		if (unusedCount > 0)
+		{
+			Iterator<T> unused = spares.iterator();
+			for (int i = 0; i < unusedCount; i++)
+			{
+				sink.hideTrailObject(unused.next());
+			}
+		}
+
+		headSequence = snakeTrail.getHeadSequence();
+		tailSequence = snakeTrail.getTailSequence();
+	}
+
+	/**
+	 * Places every object again, for when all locations changed.
+	 */
+	public void resync(SnakeTrail snakeTrail, SnakeTrailObjectSink<T> sink)
+	{
+		int index = tailSequence - snakeTrail.getTailSequence();
+		for (T obj : segments)
+		{
+			if (index >= 0 && index < snakeTrail.size())
+			{
+				sink.setTrailObjectLocation(obj, snakeTrail.get(index));
+			}
+			index++;
+		}
+	}
+
+	/**
+	 * @param action run on every object, shown or spare
+	 */
+	public void forEachObject(Consumer<T> action)
+	{
+		segments.forEach(action);
+		spares.forEach(action);
+	}
+}
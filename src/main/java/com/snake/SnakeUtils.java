@@ -1,11 +1,9 @@
 package com.snake;
 
+import java.util.HashMap;
 import java.util.List;
-import net.runelite.api.Client;
-import net.runelite.api.Constants;
+import java.util.Map;
 import net.runelite.api.Player;
-import net.runelite.api.Tile;
-import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 public class SnakeUtils
@@ -16,33 +14,21 @@ public class SnakeUtils
 		return playerWorldPosition.dx(-offset).dy(offset);
 	}
 
-	public static LocalPoint getWorldPointLocationInScene(Client client, WorldPoint worldPoint)
+	public static int packWorldPoint(WorldPoint worldPoint)
 	{
-		Tile[][][] tiles = client.getScene().getTiles();
-		int z = client.getPlane();
-		for (int x = 0; x < Constants.SCENE_SIZE; ++x)
-		{
-			for (int y = 0; y < Constants.SCENE_SIZE; ++y)
-			{
-				Tile tile = tiles[z][x][y];
-				if (tile.getWorldLocation().equals(worldPoint))
-				{
-					return new LocalPoint(x, y);
-				}
-			}
-		}
-		return null;
+		return SnakePoint.pack(worldPoint.getX(), worldPoint.getY(), worldPoint.getPlane());
 	}
 
-	public static Player findPlayer(List<Player> players, String name)
+	public static Map<String, Player> indexPlayersByName(List<Player> players)
 	{
+		Map<String, Player> playersByName = new HashMap<>(players.size() * 2);
 		for (Player player : players)
 		{
-			if (name.equals(player.getName()))
+			if (player.getName() != null)
 			{
-				return player;
+				playersByName.put(player.getName(), player);
 			}
 		}
-		return null;
+		return playersByName;
 	}
 }
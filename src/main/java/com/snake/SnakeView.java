@@ -1,17 +1,20 @@
 package com.snake;
 
 import java.awt.Color;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import net.runelite.api.Client;
-import net.runelite.api.JagexColor;
 import net.runelite.api.Model;
 import net.runelite.api.ModelData;
+import net.runelite.api.Perspective;
 import net.runelite.api.RuneLiteObject;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
@@ -19,6 +22,9 @@ import net.runelite.api.coords.WorldPoint;
 public class SnakeView
 {
 	private final Client client;
+	private final SnakeModelCache modelCache;
+	private final SnakeSceneMapper sceneMapper;
+	private final SnakeTickProfiler profiler;
 
 	private List<SnakePlayer> snakePlayers;
 	private int gameSize;
@@ -26,113 +32,311 @@ public class SnakeView
 	private SnakeGridTheme theme;
 	private boolean isSameFoodSpawn;
 	private boolean showAllFood;
+	private boolean mergeBoardModels;
 
-	private final Map<SnakePlayer, List<RuneLiteObject>> snakePlayerTrails = new HashMap<>();
+	private SnakeEventLog eventLog;
+	private long eventCursor;
+	private boolean isFullUpdate;
+	private boolean[] isTrailChanged;
+	private int[] changedPlayerIds;
+	private int changedPlayerCount;
+
+	private final Map<SnakePlayer, SnakeTrailObjects<RuneLiteObject>> snakePlayerTrails = new HashMap<>();
+	private final SnakeTrailObjectSink<RuneLiteObject> trailObjectSink = new SnakeTrailObjectSink<RuneLiteObject>()
+	{
+		@Override
+		public RuneLiteObject spawnTrailObject(Color color)
+		{
+			return spawnSnakeTrailObject(color);
+		}
+
+		@Override
+		public void setTrailObjectLocation(RuneLiteObject obj, int point)
+		{
+			SnakeView.this.setTrailObjectLocation(obj, point);
+		}
+
+		@Override
+		public void hideTrailObject(RuneLiteObject obj)
+		{
+			obj.setActive(false);
+		}
+	};
 	private final List<RuneLiteObject> walls = new ArrayList<>();
 	private final List<RuneLiteObject> tiles = new ArrayList<>();
 	private final List<RuneLiteObject> foods = new ArrayList<>();
+	// where each wall and tile object stands, to place them again when the scene changes
+	private final Map<RuneLiteObject, WorldPoint> boardObjectPoints = new HashMap<>();
+	// trail objects of a previous game, recolored and reused by the next one
+	private final Deque<RuneLiteObject> trailObjectPool = new ArrayDeque<>();
+	private final Deque<Runnable> boardBuildSteps = new ArrayDeque<>();
 
 	private WorldPoint wallStartPoint;
 
-	private static final int TRAIL_MODEL_ID = 29311;
-	private static final int FOOD_MODEL_ID = 2317;
-
 	private static final Color DEFAULT_FOOD_COLOR = new Color(186, 16, 225);
+	private static final int MERGED_CHUNK_SIZE = 8;
 
 	@Inject
-	public SnakeView(Client client)
+	public SnakeView(Client client, SnakeModelCache modelCache, SnakeSceneMapper sceneMapper, SnakeTickProfiler profiler)
 	{
 		this.client = client;
+		this.modelCache = modelCache;
+		this.sceneMapper = sceneMapper;
+		this.profiler = profiler;
 	}
 
-	public void initialize(List<SnakePlayer> snakePlayers, int gameSize, SnakeGridTheme theme, boolean[][] walkableTiles, boolean isSameFoodSpawn, boolean showAllFood)
+	public void initialize(List<SnakePlayer> snakePlayers, SnakeEventLog eventLog, int gameSize, SnakeGridTheme theme,
+		boolean[][] walkableTiles, boolean isSameFoodSpawn, boolean showAllFood, boolean mergeBoardModels)
 	{
-		this.snakePlayers = snakePlayers;
+		setPlayers(snakePlayers, eventLog, isSameFoodSpawn, showAllFood);
 		this.gameSize = gameSize;
 		this.theme = theme;
 		this.walkableTiles = walkableTiles;
-		this.isSameFoodSpawn = isSameFoodSpawn;
-		this.showAllFood = showAllFood;
+		this.mergeBoardModels = mergeBoardModels;
 
 		wallStartPoint = SnakeUtils.getWallStartPoint(client.getLocalPlayer().getWorldLocation(), gameSize);
 
-		if (theme.getWallModelId() != -1)
+		spawnBoard();
+		spawnFoods();
+	}
+
+	/**
+	 * Replaces only the wall and tile objects, queued like a new board, leaving the snakes and food as they are.
+	 */
+	public void setBoardStyle(SnakeGridTheme theme, boolean mergeBoardModels)
+	{
+		if (snakePlayers == null || (this.theme == theme && this.mergeBoardModels == mergeBoardModels))
+		{
+			return;
+		}
+
+		this.theme = theme;
+		this.mergeBoardModels = mergeBoardModels;
+		clearAll(Arrays.asList(tiles, walls));
+		spawnBoard();
+	}
+
+	public void setShowAllFood(boolean showAllFood)
+	{
+		if (snakePlayers == null || this.showAllFood == showAllFood)
 		{
-			spawnWalls();
+			return;
 		}
-		if (theme.getTileModelId1() != -1 && theme.getTileModelId2() != -1)
+
+		this.showAllFood = showAllFood;
+		spawnFoods();
+		updateFoodObjects();
+	}
+
+	/**
+	 * Hides the snakes and food of a stopped game, keeping the board so the next game can be a rematch.
+	 */
+	public void stopGame()
+	{
+		if (snakePlayers == null)
 		{
-			spawnGridTiles();
+			return;
 		}
 
+		poolSnakeTrails();
+		for (RuneLiteObject food : foods)
+		{
+			food.setActive(false);
+		}
+		setPlayers(Collections.emptyList(), eventLog, isSameFoodSpawn, showAllFood);
+	}
+
+	/**
+	 * @return whether the board shown now is the one a new game with these settings would build
+	 */
+	public boolean canRematch(int gameSize, SnakeGridTheme theme, boolean mergeBoardModels)
+	{
+		return snakePlayers != null && this.gameSize == gameSize && this.theme == theme && this.mergeBoardModels == mergeBoardModels
+			&& wallStartPoint.equals(SnakeUtils.getWallStartPoint(client.getLocalPlayer().getWorldLocation(), gameSize));
+	}
+
+	/**
+	 * Shows a new game on the current board. Walls and tiles stay, and the trail and food objects are reused.
+	 */
+	public void rematch(List<SnakePlayer> snakePlayers, SnakeEventLog eventLog, boolean isSameFoodSpawn, boolean showAllFood)
+	{
+		poolSnakeTrails();
+		setPlayers(snakePlayers, eventLog, isSameFoodSpawn, showAllFood);
 		spawnFoods();
 	}
 
+	private void setPlayers(List<SnakePlayer> snakePlayers, SnakeEventLog eventLog, boolean isSameFoodSpawn, boolean showAllFood)
+	{
+		this.snakePlayers = snakePlayers;
+		this.eventLog = eventLog;
+		this.isSameFoodSpawn = isSameFoodSpawn;
+		this.showAllFood = showAllFood;
+		eventCursor = eventLog.getSequence();
+		isFullUpdate = true;
+		isTrailChanged = new boolean[snakePlayers.size()];
+		changedPlayerIds = new int[snakePlayers.size()];
+		changedPlayerCount = 0;
+	}
+
+	public boolean isBoardBuilt()
+	{
+		return boardBuildSteps.isEmpty();
+	}
+
+	/**
+	 * Runs queued board spawns until the time budget is used up, at least one per call.
+	 */
+	public void buildBoard(int budgetMillis)
+	{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		do
+		{
+			Runnable buildStep = boardBuildSteps.poll();
+			if (buildStep == null)
+			{
+				return;
+			}
+			buildStep.run();
+		} while (System.nanoTime() < deadline);
+	}
+
+	/**
+	 * Only redraws the food and trails that changed according to the event log since the last update.
+	 * After a region or plane change, every wall, tile, trail and food object is placed again.
+	 */
 	public void update()
 	{
-		updateFoodObjects();
+		if (snakePlayers == null)
+		{
+			return;
+		}
+
+		boolean isSceneChanged = sceneMapper.update();
+		boolean isFoodChanged = readEvents();
+
+		long start = profiler.start();
+		if (isFoodChanged || isSceneChanged)
+		{
+			updateFoodObjects();
+		}
+		profiler.stop(SnakeTickProfiler.Phase.FOOD_RENDER, start);
+
+		start = profiler.start();
+		if (isSceneChanged)
+		{
+			boardObjectPoints.forEach(this::setBoardObjectLocation);
+			resyncSnakeTrails();
+		}
 		updateSnakeTrails();
+		profiler.stop(SnakeTickProfiler.Phase.TRAIL_RENDER, start);
 	}
 
 	public void reset()
 	{
+		boardBuildSteps.clear();
 		clearAll(Arrays.asList(tiles, walls, foods));
 		clearSnakeTrails();
+		trailObjectPool.clear();
 
 		snakePlayers = null;
 	}
 
-	private void updateSnakeTrails()
+	/**
+	 * Marks the players whose trail changed since the last update. After a new game, or when more events
+	 * happened than the log holds, everything is marked instead.
+	 *
+	 * @return whether any food moved
+	 */
+	private boolean readEvents()
 	{
-		if (snakePlayers == null)
+		long sequence = eventLog.getSequence();
+		if (isFullUpdate || eventLog.isOverrun(eventCursor))
 		{
-			return;
+			isFullUpdate = false;
+			eventCursor = sequence;
+			for (int playerId = 0; playerId < snakePlayers.size(); playerId++)
+			{
+				markTrailChanged(playerId);
+			}
+			return true;
 		}
 
-		for (SnakePlayer snakePlayer : snakePlayers)
+		boolean isFoodChanged = false;
+		for (; eventCursor < sequence; eventCursor++)
 		{
-			if (snakePlayer.isAlive())
+			long event = eventLog.get(eventCursor);
+			switch (SnakeEventLog.getType(event))
 			{
-				if (!snakePlayerTrails.containsKey(snakePlayer))
-				{
-					snakePlayerTrails.put(snakePlayer, new ArrayList<>());
-				}
+				case SnakeEventLog.HEAD_MOVED:
+				case SnakeEventLog.TAIL_FREED:
+					markTrailChanged(SnakeEventLog.getPlayerId(event));
+					break;
+				case SnakeEventLog.FOOD_MOVED:
+					isFoodChanged = true;
+					break;
+			}
+		}
+		return isFoodChanged;
+	}
 
-				List<RuneLiteObject> snakeObjectTrail = snakePlayerTrails.get(snakePlayer);
-				Queue<WorldPoint> snakePointTrail = snakePlayer.getSnakeTrail();
-				for (int i = 0; i <= (snakePointTrail.size() - snakeObjectTrail.size()); i++)
-				{
-					snakeObjectTrail.add(spawnSnakeTrailObject(snakePlayer.getColor()));
-				}
+	private void markTrailChanged(int playerId)
+	{
+		if (playerId < isTrailChanged.length && !isTrailChanged[playerId])
+		{
+			isTrailChanged[playerId] = true;
+			changedPlayerIds[changedPlayerCount++] = playerId;
+		}
+	}
 
-				int index = 0;
-				for (WorldPoint point : snakePointTrail)
-				{
-					RuneLiteObject obj = snakeObjectTrail.get(index);
-					LocalPoint lp = LocalPoint.fromWorld(client, point);
-					obj.setLocation(lp, client.getPlane());
-					if (!obj.isActive())
-					{
-						obj.setActive(true);
-					}
-					index++;
-				}
+	private void updateSnakeTrails()
+	{
+		for (int i = 0; i < changedPlayerCount; i++)
+		{
+			int playerId = changedPlayerIds[i];
+			isTrailChanged[playerId] = false;
+			updateSnakeTrail(snakePlayers.get(playerId));
+		}
+		changedPlayerCount = 0;
+	}
 
-			}
-			else if (snakePlayerTrails.containsKey(snakePlayer))
-			{
-				for (RuneLiteObject rlObject : snakePlayerTrails.get(snakePlayer))
-				{
-					rlObject.setActive(false);
-				}
-				snakePlayerTrails.remove(snakePlayer);
-			}
+	private void updateSnakeTrail(SnakePlayer snakePlayer)
+	{
+		SnakeTrailObjects<RuneLiteObject> trailObjects = snakePlayerTrails.get(snakePlayer);
+		if (trailObjects == null)
+		{
+			trailObjects = new SnakeTrailObjects<>();
+			snakePlayerTrails.put(snakePlayer, trailObjects);
+		}
+		trailObjects.update(snakePlayer.getSnakeTrail(), snakePlayer.getColor(), trailObjectSink);
+	}
+
+	/**
+	 * Places every trail object again, for when the scene was reloaded and all local points changed.
+	 */
+	public void resyncSnakeTrails()
+	{
+		snakePlayerTrails.forEach((snakePlayer, trailObjects) -> trailObjects.resync(snakePlayer.getSnakeTrail(), trailObjectSink));
+	}
+
+	private void setTrailObjectLocation(RuneLiteObject obj, int point)
+	{
+		LocalPoint lp = sceneMapper.getLocalPoint(point);
+		if (lp == null)
+		{
+			obj.setActive(false);
+			return;
+		}
+
+		obj.setLocation(lp, sceneMapper.getPlane());
+		if (!obj.isActive())
+		{
+			obj.setActive(true);
 		}
 	}
 
 	private void updateFoodObjects()
 	{
-		if (snakePlayers == null)
+		if (snakePlayers == null || snakePlayers.isEmpty())
 		{
 			return;
 		}
@@ -157,43 +361,70 @@ public class SnakeView
 		}
 	}
 
-	private void drawFoodAtLocation(RuneLiteObject food, WorldPoint location)
+	private void drawFoodAtLocation(RuneLiteObject food, int location)
 	{
-		if (location == null)
+		LocalPoint lp = location == SnakePoint.NONE ? null : sceneMapper.getLocalPoint(location);
+		if (lp == null)
 		{
+			food.setActive(false);
 			return;
 		}
 
-		food.setLocation(LocalPoint.fromWorld(client, location), client.getPlane());
+		food.setLocation(lp, sceneMapper.getPlane());
 		if (!food.isActive())
 		{
 			food.setActive(true);
 		}
 	}
 
+	private void spawnBoard()
+	{
+		boardBuildSteps.clear();
+		if (mergeBoardModels)
+		{
+			spawnMergedBoard();
+		}
+		else
+		{
+			if (theme.getWallModelId() != -1)
+			{
+				spawnWalls();
+			}
+			if (theme.getTileModelId1() != -1 && theme.getTileModelId2() != -1)
+			{
+				spawnGridTiles();
+			}
+		}
+	}
+
 	private void spawnWalls()
 	{
 		for (int x = 0; x < gameSize + 2; x++)
 		{
-			walls.add(spawnWallObject(wallStartPoint.dx(x)));
+			queueWall(wallStartPoint.dx(x));
 		}
 
 		for (int x = 0; x < gameSize + 2; x++)
 		{
-			walls.add(spawnWallObject(wallStartPoint.dx(x).dy(-gameSize - 1)));
+			queueWall(wallStartPoint.dx(x).dy(-gameSize - 1));
 		}
 
 		for (int y = 0; y < gameSize; y++)
 		{
-			walls.add(spawnWallObject(wallStartPoint.dy(-y - 1)));
+			queueWall(wallStartPoint.dy(-y - 1));
 		}
 
 		for (int y = 0; y < gameSize; y++)
 		{
-			walls.add(spawnWallObject(wallStartPoint.dx(gameSize + 1).dy(-y - 1)));
+			queueWall(wallStartPoint.dx(gameSize + 1).dy(-y - 1));
 		}
 	}
 
+	private void queueWall(WorldPoint point)
+	{
+		boardBuildSteps.add(() -> walls.add(spawnWallObject(point)));
+	}
+
 	private void spawnGridTiles()
 	{
 		int tileObjectId;
@@ -212,25 +443,106 @@ public class SnakeView
 
 				if (walkableTiles[x][y])
 				{
-					tiles.add(spawnGridTileObject(wallStartPoint.dx(x + 1).dy(-(y + 1)), tileObjectId));
+					WorldPoint point = wallStartPoint.dx(x + 1).dy(-(y + 1));
+					int modelId = tileObjectId;
+					boardBuildSteps.add(() -> tiles.add(spawnGridTileObject(point, modelId)));
 				}
 			}
 		}
 	}
 
-	private void spawnFoods()
+	/**
+	 * Spawns the walls and tiles as one merged model per chunk, instead of one object per tile.
+	 * Every chunk is drawn at the height of its center tile, so this is meant for flat areas.
+	 */
+	private void spawnMergedBoard()
 	{
-		if (isSameFoodSpawn || !showAllFood || snakePlayers.size() == 1)
+		int areaSize = gameSize + 2;
+		for (int chunkX = 0; chunkX < areaSize; chunkX += MERGED_CHUNK_SIZE)
 		{
-			foods.add(spawnFoodObject(DEFAULT_FOOD_COLOR));
+			for (int chunkY = 0; chunkY < areaSize; chunkY += MERGED_CHUNK_SIZE)
+			{
+				int x = chunkX;
+				int y = chunkY;
+				boardBuildSteps.add(() -> spawnMergedChunk(x, y));
+			}
 		}
-		else
+	}
+
+	private void spawnMergedChunk(int chunkX, int chunkY)
+	{
+		int areaSize = gameSize + 2;
+		int centerX = Math.min(chunkX + MERGED_CHUNK_SIZE / 2, areaSize - 1);
+		int centerY = Math.min(chunkY + MERGED_CHUNK_SIZE / 2, areaSize - 1);
+
+		List<ModelData> chunkModels = new ArrayList<>();
+		for (int x = chunkX; x < Math.min(chunkX + MERGED_CHUNK_SIZE, areaSize); x++)
 		{
-			for (SnakePlayer snakePlayer : snakePlayers)
+			for (int y = chunkY; y < Math.min(chunkY + MERGED_CHUNK_SIZE, areaSize); y++)
 			{
-				foods.add(spawnFoodObject(snakePlayer.getColor()));
+				int modelId = getBoardModelId(x, y);
+				ModelData modelData = modelId == -1 ? null : client.loadModelData(modelId);
+				if (modelData != null)
+				{
+					chunkModels.add(modelData.cloneVertices().translate(
+						(x - centerX) * Perspective.LOCAL_TILE_SIZE, 0, (centerY - y) * Perspective.LOCAL_TILE_SIZE));
+				}
 			}
 		}
+
+		if (!chunkModels.isEmpty())
+		{
+			SnakeObjectSpawnEvent spawnEvent = beginSpawnEvent();
+			Model chunkModel = client.mergeModels(chunkModels.toArray(new ModelData[0])).light();
+			tiles.add(spawnBoardObject(wallStartPoint.dx(centerX).dy(-centerY), chunkModel));
+			commitSpawnEvent(spawnEvent, "Merged chunk", -1);
+		}
+	}
+
+	/**
+	 * @param x the x offset from the wall start point, where 0 and gameSize + 1 are walls
+	 * @param y the y offset south of the wall start point, where 0 and gameSize + 1 are walls
+	 * @return the model drawn on the tile, or -1 for none
+	 */
+	private int getBoardModelId(int x, int y)
+	{
+		if (x == 0 || y == 0 || x == gameSize + 1 || y == gameSize + 1)
+		{
+			return theme.getWallModelId();
+		}
+
+		if (theme.getTileModelId1() == -1 || theme.getTileModelId2() == -1 || !walkableTiles[x - 1][y - 1])
+		{
+			return -1;
+		}
+		return (x + y) % 2 == 0 ? theme.getTileModelId1() : theme.getTileModelId2();
+	}
+
+	/**
+	 * Spawns the food objects, recoloring the ones already spawned and hiding any left over.
+	 */
+	private void spawnFoods()
+	{
+		boolean isSingleFood = isSameFoodSpawn || !showAllFood || snakePlayers.size() == 1;
+		int foodCount = isSingleFood ? 1 : snakePlayers.size();
+		for (int i = 0; i < foodCount; i++)
+		{
+			Color color = isSingleFood ? DEFAULT_FOOD_COLOR : snakePlayers.get(i).getColor();
+			if (i < foods.size())
+			{
+				foods.get(i).setModel(modelCache.getFoodModel(color));
+				foods.get(i).setActive(false);
+			}
+			else
+			{
+				foods.add(spawnFoodObject(color));
+			}
+		}
+
+		while (foods.size() > foodCount)
+		{
+			foods.remove(foods.size() - 1).setActive(false);
+		}
 	}
 
 	private void clearAll(List<List<RuneLiteObject>> allObjectLists)
@@ -240,6 +552,7 @@ public class SnakeView
 			for (RuneLiteObject obj : objectList)
 			{
 				obj.setActive(false);
+				boardObjectPoints.remove(obj);
 			}
 			objectList.clear();
 		}
@@ -247,72 +560,109 @@ public class SnakeView
 
 	private void clearSnakeTrails()
 	{
-		snakePlayerTrails.forEach((snakePlayer, runeLiteObjects) -> {
-			for (RuneLiteObject runeLiteObject : runeLiteObjects)
-			{
-				runeLiteObject.setActive(false);
-			}
-		});
+		snakePlayerTrails.forEach((snakePlayer, trailObjects) -> trailObjects.forEachObject(obj -> obj.setActive(false)));
 		snakePlayerTrails.clear();
 	}
 
-	private RuneLiteObject spawnSnakeTrailObject(Color color)
+	private void poolSnakeTrails()
 	{
-		RuneLiteObject obj = client.createRuneLiteObject();
-		ModelData trailModel = client.loadModelData(TRAIL_MODEL_ID).cloneColors();
+		snakePlayerTrails.forEach((snakePlayer, trailObjects) -> trailObjects.forEachObject(obj ->
+		{
+			obj.setActive(false);
+			trailObjectPool.push(obj);
+		}));
+		snakePlayerTrails.clear();
+	}
 
-		trailModel.recolor(trailModel.getFaceColors()[0],
-			JagexColor.rgbToHSL(color.getRGB(), 0.01d));
-		trailModel.recolor(trailModel.getFaceColors()[1],
-			JagexColor.rgbToHSL(color.getRGB(), 1.0d));
+	private RuneLiteObject spawnSnakeTrailObject(Color color)
+	{
+		if (!trailObjectPool.isEmpty())
+		{
+			RuneLiteObject obj = trailObjectPool.pop();
+			obj.setModel(modelCache.getTrailModel(color));
+			return obj;
+		}
 
-		obj.setModel(trailModel.light());
+		SnakeObjectSpawnEvent spawnEvent = beginSpawnEvent();
+		RuneLiteObject obj = client.createRuneLiteObject();
+		obj.setModel(modelCache.getTrailModel(color));
 
+		commitSpawnEvent(spawnEvent, "Trail", SnakeModelCache.TRAIL_MODEL_ID);
 		return obj;
 	}
 
 	private RuneLiteObject spawnWallObject(WorldPoint point)
 	{
-		RuneLiteObject obj = client.createRuneLiteObject();
-
-		Model wall = client.loadModel(theme.getWallModelId());
-		obj.setModel(wall);
-		LocalPoint lp = LocalPoint.fromWorld(client, point);
-		obj.setLocation(lp, client.getPlane());
-		obj.setActive(true);
+		SnakeObjectSpawnEvent spawnEvent = beginSpawnEvent();
+		RuneLiteObject obj = spawnBoardObject(point, modelCache.getModel(theme.getWallModelId()));
+		commitSpawnEvent(spawnEvent, "Wall", theme.getWallModelId());
 		return obj;
 	}
 
 	private RuneLiteObject spawnGridTileObject(WorldPoint point, int tileObjectId)
 	{
-		RuneLiteObject obj = client.createRuneLiteObject();
+		SnakeObjectSpawnEvent spawnEvent = beginSpawnEvent();
+		RuneLiteObject obj = spawnBoardObject(point, modelCache.getModel(tileObjectId));
+		commitSpawnEvent(spawnEvent, "Tile", tileObjectId);
+		return obj;
+	}
 
-		Model tile = client.loadModel(tileObjectId);
-		obj.setModel(tile);
-		LocalPoint lp = LocalPoint.fromWorld(client, point);
-		obj.setLocation(lp, client.getPlane());
+	private RuneLiteObject spawnBoardObject(WorldPoint point, Model model)
+	{
+		RuneLiteObject obj = client.createRuneLiteObject();
 
-		obj.setActive(true);
+		obj.setModel(model);
+		boardObjectPoints.put(obj, point);
+		setBoardObjectLocation(obj, point);
 		return obj;
 	}
 
+	private void setBoardObjectLocation(RuneLiteObject obj, WorldPoint point)
+	{
+		LocalPoint lp = sceneMapper.getLocalPoint(point);
+		if (lp == null)
+		{
+			obj.setActive(false);
+			return;
+		}
+
+		obj.setLocation(lp, sceneMapper.getPlane());
+		if (!obj.isActive())
+		{
+			obj.setActive(true);
+		}
+	}
+
 	private RuneLiteObject spawnFoodObject(Color color)
 	{
+		SnakeObjectSpawnEvent spawnEvent = beginSpawnEvent();
 		RuneLiteObject obj = client.createRuneLiteObject();
 
-		ModelData foodModel = client.loadModelData(FOOD_MODEL_ID)
-			.cloneVertices()
-			.translate(0, 200, 0)
-			.cloneColors();
-		foodModel.recolor(foodModel.getFaceColors()[0],
-			JagexColor.rgbToHSL(color.getRGB(), 1.0d));
-		obj.setModel(foodModel.light());
+		obj.setModel(modelCache.getFoodModel(color));
 
 		obj.setAnimation(client.loadAnimation(502));
 		obj.setShouldLoop(true);
 
 		obj.setDrawFrontTilesFirst(true);
 
+		commitSpawnEvent(spawnEvent, "Food", SnakeModelCache.FOOD_MODEL_ID);
 		return obj;
 	}
+
+	private static SnakeObjectSpawnEvent beginSpawnEvent()
+	{
+		SnakeObjectSpawnEvent spawnEvent = new SnakeObjectSpawnEvent();
+		spawnEvent.begin();
+		return spawnEvent;
+	}
+
+	private static void commitSpawnEvent(SnakeObjectSpawnEvent spawnEvent, String kind, int modelId)
+	{
+		if (spawnEvent.shouldCommit())
+		{
+			spawnEvent.kind = kind;
+			spawnEvent.modelId = modelId;
+			spawnEvent.commit();
+		}
+	}
 }
@@ -0,0 +1,9 @@
+package com.snake;
+
+public interface SnakeWalkabilitySource
+{
+	/**
+	 * @return whether the tile at the packed location can be walked on, see {@link SnakePoint}
+	 */
+	boolean isWalkable(int point);
+}
@@ -0,0 +1,140 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SnakeGameTest
+{
+	private static final int START_LOCATION = SnakePoint.pack(3200, 3200, 0);
+	private static final int GAME_SIZE = 15;
+	private static final int SEED = 42;
+	private static final int BOT_COUNT = 2;
+	private static final String PLAYER_NAME = "player";
+	private static final List<String> PLAYER_NAMES = Collections.singletonList(PLAYER_NAME);
+	private static final int MAX_TICKS = 1000;
+	// a loop around the start tile, which leaves the cells it passed in a different order than before
+	private static final int[][] WAITING_WALK = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+	@Test
+	public void rematchSpawnsTheSameFoodAsANewBoard()
+	{
+		for (boolean isSameFoodSpawn : new boolean[]{true, false})
+		{
+			TestGame rematched = new TestGame();
+			rematched.game.initialize(PLAYER_NAMES, PLAYER_NAME, START_LOCATION, GAME_SIZE, false, true, isSameFoodSpawn, 1, BOT_COUNT);
+			rematched.startPlaying(false);
+			rematched.playUntilOver();
+			assertTrue(rematched.game.canRematch(START_LOCATION, GAME_SIZE));
+			rematched.game.rematch(PLAYER_NAMES, PLAYER_NAME, false, true, isSameFoodSpawn, SEED, BOT_COUNT);
+
+			TestGame fresh = new TestGame();
+			fresh.game.initialize(PLAYER_NAMES, PLAYER_NAME, START_LOCATION, GAME_SIZE, false, true, isSameFoodSpawn, SEED, BOT_COUNT);
+
+			// a player that walked around while waiting must not change where food spawns
+			rematched.startPlaying(false);
+			fresh.startPlaying(true);
+
+			assertEquals(rematched.getFoodLocations(), fresh.getFoodLocations());
+			int foodChangeCount = 0;
+			for (int tick = 0; tick < MAX_TICKS && rematched.isPlaying(); tick++)
+			{
+				List<Integer> foodLocations = rematched.getFoodLocations();
+				rematched.tick();
+				fresh.tick();
+				assertEquals("tick " + tick, rematched.getFoodLocations(), fresh.getFoodLocations());
+				assertEquals("tick " + tick, rematched.game.getStateHash(), fresh.game.getStateHash());
+				foodChangeCount += foodLocations.equals(rematched.getFoodLocations()) ? 0 : 1;
+			}
+			assertEquals(rematched.game.getCurrentState(), fresh.game.getCurrentState());
+			assertTrue("food should respawn during the game", foodChangeCount > 3);
+		}
+	}
+
+	/**
+	 * A game whose player walks straight to their food, which only depends on the game state.
+	 */
+	private static class TestGame implements SnakeOverheadTextSink
+	{
+		private final SnakeGame game;
+		private int playerLocation = START_LOCATION;
+
+		private TestGame()
+		{
+			game = new SnakeGame(playerId -> playerLocation, point -> true, this);
+		}
+
+		/**
+		 * @param walkAround walk around the start tile while waiting, back on it before getting ready
+		 */
+		private void startPlaying(boolean walkAround)
+		{
+			if (walkAround)
+			{
+				for (int[] offset : WAITING_WALK)
+				{
+					playerLocation = SnakePoint.pack(SnakePoint.getX(START_LOCATION) + offset[0], SnakePoint.getY(START_LOCATION) + offset[1], 0);
+					game.tick();
+				}
+			}
+			playerLocation = START_LOCATION;
+			game.tick();
+
+			game.handleChatMessage(PLAYER_NAME, SnakeGame.READY_MESSAGE);
+			while (game.getCurrentState() != SnakeGame.State.PLAYING)
+			{
+				game.tick();
+			}
+		}
+
+		private void playUntilOver()
+		{
+			for (int tick = 0; tick < MAX_TICKS && isPlaying(); tick++)
+			{
+				tick();
+			}
+			playerLocation = START_LOCATION;
+		}
+
+		private boolean isPlaying()
+		{
+			return game.getCurrentState() == SnakeGame.State.PLAYING;
+		}
+
+		private void tick()
+		{
+			int foodLocation = game.getSnakePlayers().get(0).getFoodLocation();
+			if (foodLocation != SnakePoint.NONE)
+			{
+				int dx = Integer.signum(SnakePoint.getX(foodLocation) - SnakePoint.getX(playerLocation));
+				int dy = Integer.signum(SnakePoint.getY(foodLocation) - SnakePoint.getY(playerLocation));
+				playerLocation = SnakePoint.pack(SnakePoint.getX(playerLocation) + dx, SnakePoint.getY(playerLocation) + dy, 0);
+			}
+			game.tick();
+		}
+
+		private List<Integer> getFoodLocations()
+		{
+			List<Integer> foodLocations = new ArrayList<>();
+			for (SnakePlayer snakePlayer : game.getSnakePlayers())
+			{
+				foodLocations.add(snakePlayer.getFoodLocation());
+			}
+			return foodLocations;
+		}
+
+		@Override
+		public void setOverheadText(int playerId, String text, Color color)
+		{
+		}
+
+		@Override
+		public void playDeathAnimation(int playerId)
+		{
+		}
+	}
+}
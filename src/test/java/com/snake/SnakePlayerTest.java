@@ -0,0 +1,107 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SnakePlayerTest
+{
+	private static final int GAME_SIZE = 15;
+
+	private SnakeBoard board;
+	private SnakePlayer snakePlayer;
+
+	@Before
+	public void setUp()
+	{
+		boolean[][] walkableTiles = new boolean[GAME_SIZE][GAME_SIZE];
+		for (boolean[] column : walkableTiles)
+		{
+			Arrays.fill(column, true);
+		}
+		// the board covers x 101 to 115 and y 85 to 99
+		board = new SnakeBoard(SnakePoint.pack(100, 100, 0), walkableTiles, new SnakeEventLog());
+		snakePlayer = new SnakePlayer(0, "player", point(101, 99), board, Color.GREEN, true);
+		snakePlayer.fillInitialSnakeTrail();
+	}
+
+	@Test
+	public void walkingKeepsTheTrailLength()
+	{
+		moveTo(point(102, 99));
+		moveTo(point(103, 99));
+
+		assertTrail(point(102, 99), point(103, 99));
+	}
+
+	@Test
+	public void runningFillsThePassedTile()
+	{
+		grow(point(102, 99));
+		grow(point(103, 99));
+		moveTo(point(105, 99));
+
+		assertTrail(point(102, 99), point(103, 99), point(104, 99), point(105, 99));
+		assertTrue(isOccupied(point(104, 99)));
+		assertFalse(isOccupied(point(101, 99)));
+	}
+
+	@Test
+	public void longMoveOnlyKeepsTheLastTiles()
+	{
+		moveTo(point(101, 94));
+
+		assertTrail(point(101, 95), point(101, 94));
+		assertFalse(isOccupied(point(101, 97)));
+		assertFalse(isOccupied(point(101, 99)));
+	}
+
+	@Test
+	public void growingWhileRunningAddsOneSegment()
+	{
+		snakePlayer.setShouldGrow(true);
+		snakePlayer.updateLocation(point(103, 97));
+		snakePlayer.moveSnakeTrail();
+
+		assertTrail(point(101, 99), point(102, 98), point(103, 97));
+	}
+
+	private void moveTo(int location)
+	{
+		snakePlayer.updateLocation(location);
+		snakePlayer.moveSnakeTrail();
+	}
+
+	private void grow(int location)
+	{
+		snakePlayer.setShouldGrow(true);
+		moveTo(location);
+	}
+
+	private void assertTrail(int... points)
+	{
+		SnakeTrail snakeTrail = snakePlayer.getSnakeTrail();
+		int[] trail = new int[snakeTrail.size()];
+		for (int i = 0; i < trail.length; i++)
+		{
+			trail[i] = snakeTrail.get(i);
+		}
+		assertEquals(Arrays.toString(points), Arrays.toString(trail));
+		// no tile is left occupied by a removed segment
+		assertEquals(points.length, board.getReachableCount() - board.getFreeCellCount());
+	}
+
+	private boolean isOccupied(int point)
+	{
+		return board.isOccupied(board.toIndex(point));
+	}
+
+	private static int point(int x, int y)
+	{
+		return SnakePoint.pack(x, y, 0);
+	}
+}
@@ -0,0 +1,40 @@
+package com.snake;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class SnakePointTest
+{
+	@Test
+	public void interpolateStepsOneTileAtATime()
+	{
+		int from = SnakePoint.pack(100, 100, 0);
+		int[][] offsets = {{3, 0}, {0, -4}, {2, 2}, {-5, 2}, {1, -7}, {6, 5}};
+		for (int[] offset : offsets)
+		{
+			int to = SnakePoint.pack(100 + offset[0], 100 + offset[1], 0);
+			int steps = SnakePoint.distance(from, to);
+			int previous = from;
+			for (int step = 1; step <= steps; step++)
+			{
+				int point = SnakePoint.interpolate(from, to, step, steps);
+				assertEquals(1, SnakePoint.distance(previous, point));
+				assertEquals(step, SnakePoint.distance(from, point));
+				previous = point;
+			}
+			assertEquals(to, previous);
+		}
+	}
+
+	@Test
+	public void interpolateFollowsStraightLines()
+	{
+		int from = SnakePoint.pack(100, 100, 0);
+		int to = SnakePoint.pack(100, 103, 0);
+		assertEquals(SnakePoint.pack(100, 101, 0), SnakePoint.interpolate(from, to, 1, 3));
+		assertEquals(SnakePoint.pack(100, 102, 0), SnakePoint.interpolate(from, to, 2, 3));
+
+		to = SnakePoint.pack(102, 98, 0);
+		assertEquals(SnakePoint.pack(101, 99, 0), SnakePoint.interpolate(from, to, 1, 2));
+	}
+}
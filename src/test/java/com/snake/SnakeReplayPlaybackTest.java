@@ -0,0 +1,154 @@
+package com.snake;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SnakeReplayPlaybackTest
+{
+	private static final int START_LOCATION = SnakePoint.pack(3200, 3200, 0);
+	private static final int GAME_SIZE = 15;
+	private static final int MAX_TICKS = 2000;
+
+	@Test
+	public void playbackMatchesRecordedGame() throws IOException
+	{
+		MemoryReplayWriter writer = new MemoryReplayWriter();
+		List<Long> stateHashes = new ArrayList<>();
+		SnakeGame game = recordGame(writer, stateHashes);
+
+		SnakeReplay replay = SnakeReplay.read(new ByteArrayInputStream(writer.toDeflatedBytes()));
+		// played somewhere else, the state hash is relative to the board so it still matches
+		int wallStartPoint = replay.getWallStartPoint();
+		int playbackWallStartPoint = SnakePoint.pack(SnakePoint.getX(wallStartPoint) + 300, SnakePoint.getY(wallStartPoint) - 200, 0);
+		SnakeReplayPlayback playback = new SnakeReplayPlayback(replay, playbackWallStartPoint);
+
+		assertEquals(stateHashes.size() - 1, playback.getTickCount());
+		for (int tick = 0; tick < stateHashes.size(); tick++)
+		{
+			assertEquals("tick " + tick, (long) stateHashes.get(tick), playback.getStateHash());
+			playback.step();
+		}
+		assertEquals(game.getCurrentState(), playback.getCurrentState());
+
+		Random random = new Random(1);
+		for (int i = 0; i < 100; i++)
+		{
+			int tick = random.nextInt(stateHashes.size());
+			playback.seek(tick);
+			assertEquals(tick, playback.getTick());
+			assertEquals("seek " + tick, (long) stateHashes.get(tick), playback.getStateHash());
+		}
+		assertTrue("game should outlast a keyframe", playback.getTickCount() > 100);
+	}
+
+	@Test
+	public void cutOffReplayPlaysUpToTheCut() throws IOException
+	{
+		MemoryReplayWriter writer = new MemoryReplayWriter();
+		List<Long> stateHashes = new ArrayList<>();
+		recordGame(writer, stateHashes);
+
+		// like a client that closed mid-game, the deflate stream is never finished
+		byte[] deflated = writer.toDeflatedBytes();
+		byte[] cutOff = Arrays.copyOf(deflated, deflated.length / 2);
+		SnakeReplay replay = SnakeReplay.read(new ByteArrayInputStream(cutOff));
+		SnakeReplayPlayback playback = new SnakeReplayPlayback(replay, replay.getWallStartPoint());
+
+		assertTrue(playback.getTickCount() > 0);
+		assertTrue(playback.getTickCount() < stateHashes.size() - 1);
+		for (int tick = 0; tick <= playback.getTickCount(); tick++)
+		{
+			assertEquals("tick " + tick, (long) stateHashes.get(tick), playback.getStateHash());
+			playback.step();
+		}
+		assertEquals(playback.getTickCount(), playback.getTick());
+	}
+
+	/**
+	 * Plays a game of bots to its end while recording it.
+	 *
+	 * @param stateHashes filled with the state hash before the first tick and after every tick
+	 */
+	private static SnakeGame recordGame(MemoryReplayWriter writer, List<Long> stateHashes)
+	{
+		SnakeGame game = new SnakeGame(playerId -> START_LOCATION, point -> true, new NoOverheadText());
+		game.initialize(Collections.emptyList(), "", START_LOCATION, GAME_SIZE, false, true, true, 7, 3);
+
+		int offset = (int) Math.ceil(GAME_SIZE / 2.0f);
+		int wallStartPoint = SnakePoint.pack(SnakePoint.getX(START_LOCATION) - offset, SnakePoint.getY(START_LOCATION) + offset, 0);
+		SnakeReplayRecorder recorder = new SnakeReplayRecorder(writer);
+		recorder.start(wallStartPoint, GAME_SIZE, false, true, true, 7, game.getWalkableTiles(), game.getCurrentState(), game.getEventLog(),
+			game.getSnakePlayers());
+
+		stateHashes.add(game.getStateHash());
+		while (game.getCurrentState() != SnakeGame.State.GAME_OVER && stateHashes.size() <= MAX_TICKS)
+		{
+			game.tick();
+			recorder.recordTick(game.getCurrentState(), game.getSnakePlayers());
+			stateHashes.add(game.getStateHash());
+		}
+		recorder.stop();
+		return game;
+	}
+
+	/**
+	 * Keeps the chunks in memory instead of writing a file on the executor.
+	 */
+	private static class MemoryReplayWriter extends SnakeReplayWriter
+	{
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		private MemoryReplayWriter()
+		{
+			super(null);
+		}
+
+		@Override
+		public boolean offer(File file, byte[] data, int length, boolean isLast)
+		{
+			bytes.write(data, 0, length);
+			return true;
+		}
+
+		@Override
+		public void offerLast(File file, byte[] data, int length)
+		{
+			bytes.write(data, 0, length);
+		}
+
+		private byte[] toDeflatedBytes() throws IOException
+		{
+			ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+			try (DeflaterOutputStream out = new DeflaterOutputStream(deflated))
+			{
+				bytes.writeTo(out);
+			}
+			return deflated.toByteArray();
+		}
+	}
+
+	private static class NoOverheadText implements SnakeOverheadTextSink
+	{
+		@Override
+		public void setOverheadText(int playerId, String text, Color color)
+		{
+		}
+
+		@Override
+		public void playDeathAnimation(int playerId)
+		{
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package com.snake;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many headless bot games in parallel on a fork/join pool and prints throughput and outcome statistics.
+ * Every game has its own {@link SnakeGame}, board and seed, derived from the base seed and the game index,
+ * so results do not depend on how the games are scheduled.
+ * <p>
+ * Arguments are key=value pairs, where sizes and bots take comma separated lists to run every combination:
+ * games=10000 sizes=11,31,61 bots=2,5 seed=1 obstacles=0.05 maxTicks=20000
+ */
+public class SnakeSimulation
+{
+	private static final int START_LOCATION = SnakePoint.pack(3200, 3200, 0);
+	private static final int GAMES_PER_TASK = 16;
+
+	public static void main(String[] args)
+	{
+		int games = 10000;
+		int[] sizes = {11, 31, 61};
+		int[] botCounts = {2, 5};
+		long seed = 1;
+		double obstacleDensity = 0;
+		int maxTicks = 20000;
+
+		for (String arg : args)
+		{
+			String[] keyValue = arg.split("=", 2);
+			if (keyValue.length != 2)
+			{
+				throw new IllegalArgumentException("Expected key=value, got " + arg);
+			}
+
+			switch (keyValue[0])
+			{
+				case "games":
+					games = Integer.parseInt(keyValue[1]);
+					break;
+				case "sizes":
+					sizes = parseList(keyValue[1]);
+					break;
+				case "bots":
+					botCounts = parseList(keyValue[1]);
+					break;
+				case "seed":
+					seed = Long.parseLong(keyValue[1]);
+					break;
+				case "obstacles":
+					obstacleDensity = Double.parseDouble(keyValue[1]);
+					break;
+				case "maxTicks":
+					maxTicks = Integer.parseInt(keyValue[1]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument " + keyValue[0]);
+			}
+		}
+
+		for (int botCount : botCounts)
+		{
+			if (botCount < 1)
+			{
+				throw new IllegalArgumentException("Every game needs at least one bot");
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		System.out.printf(Locale.ROOT, "%d threads, %d games per configuration, seed %d%n", pool.getParallelism(), games, seed);
+		for (int size : sizes)
+		{
+			for (int botCount : botCounts)
+			{
+				Configuration configuration = new Configuration(size, botCount, seed, obstacleDensity, maxTicks);
+				long start = System.nanoTime();
+				Statistics statistics = pool.invoke(new SimulationTask(configuration, 0, games));
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.println(statistics.getReport(configuration, seconds));
+			}
+		}
+		pool.shutdown();
+	}
+
+	private static int[] parseList(String value)
+	{
+		String[] parts = value.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+		{
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	private static Statistics playGame(Configuration configuration, int gameIndex)
+	{
+		SnakeRandom random = new SnakeRandom(configuration.seed).split(gameIndex);
+		int gameSeed = (int) random.nextLong();
+		long obstacleSeed = random.nextLong();
+
+		SnakeGame game = new SnakeGame(
+			playerId -> START_LOCATION,
+			point -> point == START_LOCATION || !isObstacle(point, obstacleSeed, configuration.obstacleDensity),
+			new SnakeOverheadTextSink()
+			{
+				@Override
+				public void setOverheadText(int playerId, String text, Color color)
+				{
+				}
+
+				@Override
+				public void playDeathAnimation(int playerId)
+				{
+				}
+			});
+		game.initialize(Collections.emptyList(), "", START_LOCATION, configuration.gameSize, false, true, true, gameSeed,
+			configuration.botCount);
+
+		int ticks = 0;
+		while (game.getCurrentState() != SnakeGame.State.GAME_OVER && ticks < configuration.maxTicks)
+		{
+			game.tick();
+			ticks++;
+		}
+
+		Statistics statistics = new Statistics(configuration.botCount);
+		statistics.games = 1;
+		statistics.ticks = ticks;
+		if (game.getCurrentState() != SnakeGame.State.GAME_OVER)
+		{
+			statistics.cappedGames = 1;
+		}
+
+		for (SnakePlayer snakePlayer : game.getSnakePlayers())
+		{
+			statistics.totalScore += snakePlayer.getScore();
+			if (snakePlayer.isAlive() && statistics.cappedGames == 0)
+			{
+				statistics.winsByPlayer[snakePlayer.getId()]++;
+				statistics.totalWinnerScore += snakePlayer.getScore();
+				statistics.maxWinnerScore = Math.max(statistics.maxWinnerScore, snakePlayer.getScore());
+			}
+		}
+		return statistics;
+	}
+
+	private static boolean isObstacle(int point, long obstacleSeed, double obstacleDensity)
+	{
+		long z = (point + obstacleSeed) * 0x9e3779b97f4a7c15L;
+		z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+		z ^= z >>> 31;
+		return (z >>> 11) * 0x1.0p-53 < obstacleDensity;
+	}
+
+	private static class Configuration
+	{
+		private final int gameSize;
+		private final int botCount;
+		private final long seed;
+		private final double obstacleDensity;
+		private final int maxTicks;
+
+		private Configuration(int gameSize, int botCount, long seed, double obstacleDensity, int maxTicks)
+		{
+			this.gameSize = gameSize;
+			this.botCount = botCount;
+			this.seed = seed;
+			this.obstacleDensity = obstacleDensity;
+			this.maxTicks = maxTicks;
+		}
+	}
+
+	/**
+	 * Plays a range of games, splitting it in halves until a range is small enough to play directly.
+	 */
+	private static class SimulationTask extends RecursiveTask<Statistics>
+	{
+		private final Configuration configuration;
+		private final int from;
+		private final int to;
+
+		private SimulationTask(Configuration configuration, int from, int to)
+		{
+			this.configuration = configuration;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Statistics compute()
+		{
+			if (to - from <= GAMES_PER_TASK)
+			{
+				Statistics statistics = new Statistics(configuration.botCount);
+				for (int gameIndex = from; gameIndex < to; gameIndex++)
+				{
+					statistics.add(playGame(configuration, gameIndex));
+				}
+				return statistics;
+			}
+
+			int middle = (from + to) >>> 1;
+			SimulationTask left = new SimulationTask(configuration, from, middle);
+			left.fork();
+			Statistics statistics = new SimulationTask(configuration, middle, to).compute();
+			statistics.add(left.join());
+			return statistics;
+		}
+	}
+
+	private static class Statistics
+	{
+		private long games;
+		private long ticks;
+		private long cappedGames;
+		private long totalScore;
+		private long totalWinnerScore;
+		private int maxWinnerScore;
+		private final long[] winsByPlayer;
+
+		private Statistics(int playerCount)
+		{
+			winsByPlayer = new long[playerCount];
+		}
+
+		private void add(Statistics other)
+		{
+			games += other.games;
+			ticks += other.ticks;
+			cappedGames += other.cappedGames;
+			totalScore += other.totalScore;
+			totalWinnerScore += other.totalWinnerScore;
+			maxWinnerScore = Math.max(maxWinnerScore, other.maxWinnerScore);
+			for (int i = 0; i < winsByPlayer.length; i++)
+			{
+				winsByPlayer[i] += other.winsByPlayer[i];
+			}
+		}
+
+		private String getReport(Configuration configuration, double seconds)
+		{
+			long wins = 0;
+			List<String> winShares = new ArrayList<>();
+			for (long playerWins : winsByPlayer)
+			{
+				wins += playerWins;
+			}
+			for (long playerWins : winsByPlayer)
+			{
+				winShares.add(String.format(Locale.ROOT, "%.1f%%", wins == 0 ? 0 : 100.0 * playerWins / wins));
+			}
+
+			return String.format(Locale.ROOT,
+				"size=%d bots=%d: %.0f games/s, %.0f ticks/s | avg ticks %.1f, capped %d | avg score %.1f, "
+					+ "avg winner score %.1f, max winner score %d | wins by bot %s",
+				configuration.gameSize, configuration.botCount, games / seconds, ticks / seconds,
+				(double) ticks / games, cappedGames, (double) totalScore / (games * Math.max(1, configuration.botCount)),
+				wins == 0 ? 0 : (double) totalWinnerScore / wins, maxWinnerScore, String.join(" ", winShares));
+		}
+	}
+}